@@ -6,6 +6,9 @@
 package com.baz.canvas;
 
 import com.baz.graphics.base.BaZAlphaVariator;
+import com.baz.graphics.base.BaZLevelOfDetail;
+import com.baz.graphics.base.BaZPaintCache;
+import com.baz.shape.base.BaZPositionStore;
 import com.baz.shape.base.BaZRect;
 import com.baz.event.BaZEventCreateLink;
 import com.baz.event.BaZEventCreateShape;
@@ -24,17 +27,39 @@ import com.baz.shape.BaZAbstractShape;
 import com.baz.shape.BaZShapeLink;
 import com.baz.timer.BaZTimer;
 import com.baz.timer.BaZTimerDelegate;
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.JPopupMenu;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * Lienzo principal de objetos dibujables.
@@ -48,6 +73,9 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
     /** Planaridad por defecto de los enlances a crear. */
     public static final double DEFAULT_LINK_FLATNESS = 20;
 
+    /** Registro de los errores ocurridos al aplicar las transacciones. */
+    private static final Logger LOGGER = Logger.getLogger(BaZCanvas.class.getName());
+
     /** Gestor de eventos para este lienzo. */
     protected BaZEventManager eventManager = new BaZEventManager(this);
 
@@ -76,6 +104,121 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
     /** Determina la variación del alpha del alguna figura cuando está enfocada*/
     protected BaZAlphaVariator focusedAlphaVariator = new BaZAlphaVariator();
 
+    /** Margen, en coordenadas sin zoom, que se añade al área visible para no
+        omitir los bordes y resaltados de las figuras que están en el límite. */
+    protected static final int CULLING_MARGIN = 4;
+
+    /** Número de figuras omitidas en el último pintado por estar fuera del área visible. */
+    protected int culledShapeCount = 0;
+
+    /** Margen, en coordenadas sin zoom, que se añade a las regiones a repintar
+        para cubrir el grosor de los trazos y resaltados de las figuras. */
+    protected static final int DIRTY_MARGIN = 4;
+
+    /** Retardo, en milisegundos, con el que se pintan las baldosas del nivel de
+        zoom actual después de mostrar escaladas las de un nivel cercano. */
+    protected static final int REFINE_DELAY = 150;
+
+    /** Número máximo de baldosas de otro nivel de zoom que se escalan para
+        cubrir una baldosa del nivel actual. */
+    protected static final int MAX_SCALED_TILES = 16;
+
+    /** Región del lienzo, en coordenadas sin zoom, que debe ser repintada. */
+    protected BaZRect dirtyRegion = null;
+
+    /** Figuras modificadas cuyos límites actuales deben ser repintados. */
+    protected Set<BaZAbstractShape> dirtyShapes = new HashSet<BaZAbstractShape>();
+
+    /** Cerrojo para el acceso a las regiones a repintar. */
+    private final Object dirtyLock = new Object();
+
+    /** Determina si el lienzo se encuentra en modo de capa retenida. */
+    protected boolean retainedLayer = false;
+
+    /** Imagen con las figuras que no se mueven durante el arrastre. Solo es
+     * modificada en el hilo de eventos. */
+    protected BufferedImage staticLayer = null;
+
+    /** Determina si una figura fue modificada por fuera del hilo de eventos, en
+     * cuyo caso la imagen de figuras estáticas es descartada en el siguiente repintado. */
+    protected volatile boolean staticLayerStale = false;
+
+    /** Área visible del lienzo, en pixeles, que cubre la imagen de figuras estáticas. */
+    protected Rectangle staticLayerBounds = null;
+
+    /** Nivel de zoom con el que fue pintada la imagen de figuras estáticas. */
+    protected float staticLayerZoom = 0;
+
+    /** Figuras que se mueven durante el arrastre y sus enlaces, pintadas sobre la imagen. */
+    protected List<BaZAbstractShape> liveShapes = new ArrayList<BaZAbstractShape>();
+
+    /** Figuras excluidas de la imagen de figuras estáticas, incluyendo las embebidas. */
+    protected Set<BaZAbstractShape> excludedShapes = new HashSet<BaZAbstractShape>();
+
+    /** Nivel de detalle con el que se pintan las figuras de acuerdo al zoom. */
+    protected BaZLevelOfDetail levelOfDetail = new BaZLevelOfDetail();
+
+    /** Memoria de baldosas pintadas del lienzo. */
+    protected BaZTileCache tileCache = new BaZTileCache();
+
+    /** Determina si el lienzo se pinta por medio de la memoria de baldosas. */
+    protected boolean tileCacheEnabled = false;
+
+    /** Hilos que pintan las baldosas en paralelo, o <code>null</code> si el pintado paralelo está deshabilitado. */
+    protected ExecutorService renderExecutor = null;
+
+    /** Generación de las figuras, cambia cada vez que una figura es modificada.
+     * Las baldosas pintadas en paralelo con una generación anterior son descartadas. */
+    protected final AtomicLong renderGeneration = new AtomicLong();
+
+    /** Figuras modificadas mientras se aplican las transacciones pendientes, con
+     * los límites que tenían antes de su primera modificación. Es <code>null</code>
+     * fuera de <code>applyPendingTransactions</code>. Solo es accedido en el hilo de eventos. */
+    private Map<BaZAbstractShape, BaZRect> batchedShapes = null;
+
+    /** Baldosas del último cuadro pintado en paralelo. Solo es accedido en el hilo de eventos. */
+    private Map<Point, FrameTile> frameTiles = new HashMap<Point, FrameTile>();
+
+    /** Baldosas solicitadas a los hilos de pintado, con la generación solicitada.
+     * Solo es accedido en el hilo de eventos. */
+    private Map<Point, Long> pendingTiles = new HashMap<Point, Long>();
+
+    /** Zoom de las baldosas del último cuadro pintado en paralelo. */
+    private float frameZoom = 0;
+
+    /** Timer que repinta el lienzo para pintar las baldosas del nivel de zoom
+     * actual que fueron cubiertas con baldosas escaladas. */
+    private Timer refineTimer = null;
+
+    /** Determina si el siguiente repintado pinta las baldosas faltantes en
+     * lugar de escalar las de un nivel de zoom cercano. */
+    private boolean refineTiles = false;
+
+    /** Regiones modificadas cuyas baldosas deben ser descartadas antes de pintar. */
+    protected List<Rectangle> modifiedRegions = new ArrayList<Rectangle>();
+
+    /** Figuras modificadas cuyas baldosas deben ser descartadas antes de pintar. */
+    protected Set<BaZAbstractShape> modifiedShapes = new HashSet<BaZAbstractShape>();
+
+    /** Figuras seleccionadas por el rectangulo de selección en el último paso del arrastre. */
+    protected Set<BaZAbstractShape> rectSelectedShapes = new HashSet<BaZAbstractShape>();
+
+    /** Almacén de posiciones de las figuras del lienzo, o <code>null</code> si está deshabilitado. */
+    protected BaZPositionStore positionStore = null;
+
+    /** Transacciones confirmadas que aún no han sido aplicadas en el hilo de eventos. */
+    private final List<BaZTransaction> pendingTransactions = new ArrayList<BaZTransaction>();
+
+    /** Bandera que determina si ya se solicitó aplicar las transacciones pendientes. */
+    private boolean transactionsScheduled = false;
+
+    /** Tarea del hilo de eventos que aplica las transacciones pendientes. */
+    private final Runnable transactionsTask = new Runnable() {
+        public void run() {
+            applyPendingTransactions();
+        }
+    };
+
     /**
      * Contructor de un lienzo por defecto.
      */
@@ -190,6 +333,8 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
 
     /**
      * Modifica la figura raíz que contiene todas las figuras dibujables del lienzo.
+     * Las figuras embebidas en la figura raíz son gestionadas por medio de un
+     * índice espacial para agilizar las búsquedas por punto.
      *
      * @param rootShape
      *        Objeto <code>BaZAbsractShape</code> que será la figura raíz de todos
@@ -200,7 +345,11 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
 
          if(rootShape != null) {
             this.rootShape.setCanvas(this);
+            this.rootShape.setIndexed(true);
         }
+
+        renderGeneration.incrementAndGet();
+        tileCache.clear();
     }
 
     /**
@@ -285,17 +434,1012 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
         if(smoothGraphics)
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,RenderingHints.VALUE_ANTIALIAS_ON);
 
+        this.invalidateModifiedTiles();
+
+        boolean retained = retainedLayer && rootShape != null && this.paintStaticLayer(g2d);
+        boolean tiled = !retained && (tileCacheEnabled || renderExecutor != null)
+                && rootShape != null && this.paintTiles(g2d);
+
         // Determina el nivel de Zoom de los gráficos
         g2d.scale(zoom, zoom);
 
-        if(rootShape != null)
-            rootShape.paintRecursive(g2d);
+        Rectangle clip = this.getVisibleClip(g2d);
+
+        if (retained)
+            this.paintLiveShapes(g2d, clip);
+        else if (tiled)
+            this.paintHighlights(g2d, clip);
+        else if(rootShape != null)
+            culledShapeCount = rootShape.paintRecursive(g2d, clip);
 
         eventManager.performEventObjects(BaZEventManager.EVENT_PAINT, null, null, g);
     }
 
+    /**
+     * Retorna el área del lienzo que debe ser pintada, en coordenadas sin zoom,
+     * a partir del área de recorte del <code>Graphics2D</code> especificado.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo con el zoom ya aplicado.
+     *
+     * @return Rectangulo visible del lienzo.
+     */
+    protected Rectangle getVisibleClip(Graphics2D g) {
+        Rectangle clip = g.getClipBounds();
+
+        if (clip == null)
+            clip = new Rectangle(0, 0, (int) Math.ceil(getWidth()/zoom), (int) Math.ceil(getHeight()/zoom));
+
+        clip.grow(CULLING_MARGIN, CULLING_MARGIN);
+        return clip;
+    }
+
+    /**
+     * Pinta la imagen de las figuras estáticas sobre el lienzo, creandola si
+     * no existe o si el área visible o el nivel de zoom han cambiado.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo, sin el zoom aplicado.
+     *
+     * @return <code>true</code> si la imagen fue pintada, <code>false</code> si
+     *         no pudo ser creada.
+     */
+    protected boolean paintStaticLayer(Graphics2D g) {
+        Rectangle visible = this.getVisibleRect();
+
+        if (visible.width <= 0 || visible.height <= 0)
+            return false;
+
+        BufferedImage layer = staticLayer;
+
+        if (layer == null || staticLayerStale || staticLayerZoom != zoom || !visible.equals(staticLayerBounds)) {
+            // Se limpia antes de pintar para no perder las modificaciones
+            // ocurridas durante el pintado.
+            staticLayerStale = false;
+
+            layer = new BufferedImage(visible.width, visible.height, BufferedImage.TYPE_INT_ARGB);
+
+            Graphics2D layerGraphics = layer.createGraphics();
+
+            if(smoothGraphics)
+                layerGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,RenderingHints.VALUE_ANTIALIAS_ON);
+
+            layerGraphics.translate(-visible.x, -visible.y);
+            layerGraphics.scale(zoom, zoom);
+
+            Rectangle clip = new Rectangle((int) Math.floor(visible.x/zoom), (int) Math.floor(visible.y/zoom),
+                    (int) Math.ceil(visible.width/zoom) + 1, (int) Math.ceil(visible.height/zoom) + 1);
+            clip.grow(CULLING_MARGIN, CULLING_MARGIN);
+
+            culledShapeCount = rootShape.paintRecursive(layerGraphics, clip, excludedShapes, false);
+            layerGraphics.dispose();
+
+            staticLayer = layer;
+            staticLayerBounds = visible;
+            staticLayerZoom = zoom;
+        }
+
+        g.drawImage(layer, visible.x, visible.y, null);
+        return true;
+    }
+
+    /**
+     * Pinta sobre la imagen de figuras estáticas las figuras que se mueven
+     * durante el arrastre y el resaltado de las figuras seleccionadas o
+     * enfocadas que hacen parte de la imagen.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo con el zoom ya aplicado.
+     * @param clip
+     *        Rectangulo visible, en coordenadas del lienzo sin zoom.
+     */
+    protected void paintLiveShapes(Graphics2D g, Rectangle clip) {
+        for (int i = 0; i < liveShapes.size(); i++) {
+            BaZAbstractShape shape = liveShapes.get(i);
+            BaZRect rect = shape.bounds();
+
+            if (rect == null || rect.intersects(clip))
+                shape.paintRecursive(g, clip);
+        }
+
+        this.paintHighlights(g, clip);
+    }
+
+    /**
+     * Pinta el resaltado de las figuras seleccionadas y enfocadas que no han
+     * sido pintadas por completo en éste repintado, pues hacen parte de una
+     * imagen que no incluye los resaltados.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo con el zoom ya aplicado.
+     * @param clip
+     *        Rectangulo visible, en coordenadas del lienzo sin zoom.
+     */
+    protected void paintHighlights(Graphics2D g, Rectangle clip) {
+        this.paintHighlights(g, clip, selectedTimer.getElements());
+        this.paintHighlights(g, clip, focusedTimer.getElements());
+    }
+
+    /**
+     * Pinta el resaltado de las figuras especificadas que no se encuentran
+     * excluidas y cuyos límites interceptan el rectangulo visible.
+     */
+    private void paintHighlights(Graphics2D g, Rectangle clip, List<BaZAbstractShape> shapes) {
+        for (int i = 0; i < shapes.size(); i++) {
+            BaZAbstractShape shape = shapes.get(i);
+
+            if (excludedShapes.contains(shape))
+                continue;
+
+            BaZRect rect = shape.bounds();
+
+            if (rect == null || rect.intersects(clip))
+                shape.paintHighlight(g);
+        }
+    }
+
+    /**
+     * Pinta el lienzo por medio de las baldosas de la memoria, pintando
+     * únicamente las baldosas que no se encuentran en ella. Si la memoria de
+     * baldosas está deshabilitada todas las baldosas visibles son pintadas y
+     * descartadas después de copiarlas. Las baldosas no incluyen el resaltado
+     * de las figuras seleccionadas o enfocadas.
+     * Si el pintado paralelo está habilitado las baldosas faltantes no se
+     * pintan en el hilo de eventos, sino que se solicitan a los hilos de
+     * pintado y en su lugar se copian las del último cuadro terminado, o se
+     * deja el fondo si no existen.
+     * Las baldosas que no se encuentran en la memoria para el nivel de zoom
+     * actual, como ocurre al cambiar el zoom con la rueda del ratón, se cubren
+     * escalando las baldosas en memoria del nivel de zoom más cercano, y se
+     * pintan un instante después, cuando el zoom deja de cambiar.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo, sin el zoom aplicado.
+     *
+     * @return <code>true</code> si las baldosas fueron pintadas,
+     *         <code>false</code> si no existe un área a pintar.
+     */
+    protected boolean paintTiles(Graphics2D g) {
+        Rectangle clip = g.getClipBounds();
+
+        if (clip == null)
+            clip = this.getVisibleRect();
+
+        if (clip.width <= 0 || clip.height <= 0)
+            return false;
+
+        int size = BaZTileCache.TILE_SIZE;
+        int zoomLevel = BaZTileCache.getZoomLevel(zoom);
+
+        int tx1 = (int) Math.floor(clip.x / (double) size);
+        int ty1 = (int) Math.floor(clip.y / (double) size);
+        int tx2 = (int) Math.floor((clip.x + clip.width - 1) / (double) size);
+        int ty2 = (int) Math.floor((clip.y + clip.height - 1) / (double) size);
+
+        ExecutorService executor = renderExecutor;
+        long generation = renderGeneration.get();
+        boolean refine = refineTiles;
+        boolean scaled = false;
+
+        refineTiles = false;
+
+        if (executor != null)
+            this.prepareFrame();
+
+        for (int ty = ty1; ty <= ty2; ty++) {
+            for (int tx = tx1; tx <= tx2; tx++) {
+                BufferedImage tile = tileCacheEnabled ? tileCache.get(zoomLevel, tx, ty) : null;
+
+                if (tile == null && executor != null) {
+                    Point key = new Point(tx, ty);
+                    FrameTile frameTile = frameTiles.get(key);
+
+                    if (frameTile == null || frameTile.generation != generation)
+                        this.submitTile(executor, key, generation);
+
+                    if (frameTile != null)
+                        tile = frameTile.image;
+                    else if (tileCacheEnabled)
+                        this.paintScaledTile(g, tx, ty, zoomLevel);
+
+                } else if (tile == null) {
+                    if (!refine && tileCacheEnabled && this.paintScaledTile(g, tx, ty, zoomLevel)) {
+                        scaled = true;
+                        continue;
+                    }
+
+                    tile = this.renderTile(tx, ty, zoom);
+
+                    if (tileCacheEnabled)
+                        tileCache.put(zoomLevel, tx, ty, tile);
+                }
+
+                if (tile != null)
+                    g.drawImage(tile, tx * size, ty * size, null);
+            }
+        }
+
+        if (scaled)
+            this.scheduleRefine();
+
+        return true;
+    }
+
+    /**
+     * Cubre la baldosa especificada escalando las baldosas en memoria del
+     * nivel de zoom más cercano que la cubren por completo.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo, sin el zoom aplicado.
+     * @param tx
+     *        Columna de la baldosa.
+     * @param ty
+     *        Fila de la baldosa.
+     * @param zoomLevel
+     *        Nivel de zoom de la baldosa.
+     *
+     * @return <code>true</code> si la baldosa fue cubierta, <code>false</code>
+     *         si ningún nivel de zoom en memoria la cubre por completo.
+     */
+    protected boolean paintScaledTile(Graphics2D g, int tx, int ty, int zoomLevel) {
+        int size = BaZTileCache.TILE_SIZE;
+        int[] levels = tileCache.getZoomLevels();
+
+        int bestLevel = 0;
+        int bestX = 0, bestY = 0, bestColumns = 0;
+        BufferedImage[] bestTiles = null;
+        double bestDistance = Double.MAX_VALUE;
+
+        for (int i = 0; i < levels.length; i++) {
+            int level = levels[i];
+
+            if (level == zoomLevel)
+                continue;
+
+            // Escala de los pixeles del nivel actual a los pixeles del nivel en memoria.
+            double scale = (double) level / zoomLevel;
+            double distance = Math.abs(Math.log(scale));
+
+            if (distance >= bestDistance)
+                continue;
+
+            int cx1 = (int) Math.floor(tx * scale);
+            int cy1 = (int) Math.floor(ty * scale);
+            int cx2 = (int) Math.floor(((tx + 1) * scale * size - 1) / size);
+            int cy2 = (int) Math.floor(((ty + 1) * scale * size - 1) / size);
+            int columns = cx2 - cx1 + 1;
+            int count = columns * (cy2 - cy1 + 1);
+
+            if (count > MAX_SCALED_TILES)
+                continue;
+
+            BufferedImage[] tiles = new BufferedImage[count];
+            boolean complete = true;
+
+            for (int j = 0; j < count && complete; j++) {
+                tiles[j] = tileCache.get(level, cx1 + j % columns, cy1 + j / columns);
+                complete = tiles[j] != null;
+            }
+
+            if (!complete)
+                continue;
+
+            bestLevel = level;
+            bestX = cx1;
+            bestY = cy1;
+            bestColumns = columns;
+            bestTiles = tiles;
+            bestDistance = distance;
+        }
+
+        if (bestTiles == null)
+            return false;
+
+        double factor = (double) zoomLevel / bestLevel;
+        Shape oldClip = g.getClip();
+        Object oldInterpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+
+        g.clipRect(tx * size, ty * size, size, size);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+        for (int i = 0; i < bestTiles.length; i++) {
+            int cx = bestX + i % bestColumns;
+            int cy = bestY + i / bestColumns;
+
+            int x1 = (int) Math.floor(cx * size * factor);
+            int y1 = (int) Math.floor(cy * size * factor);
+            int x2 = (int) Math.ceil((cx + 1) * size * factor);
+            int y2 = (int) Math.ceil((cy + 1) * size * factor);
+
+            g.drawImage(bestTiles[i], x1, y1, x2 - x1, y2 - y1, null);
+        }
+
+        if (oldInterpolation != null)
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldInterpolation);
+
+        g.setClip(oldClip);
+        return true;
+    }
+
+    /**
+     * Programa el repintado del lienzo que pinta las baldosas del nivel de zoom
+     * actual que fueron cubiertas con baldosas escaladas. Cada llamado aplaza
+     * el repintado, de manera que mientras el zoom siga cambiando solo se
+     * escalan las baldosas en memoria.
+     */
+    private void scheduleRefine() {
+        if (refineTimer == null) {
+            refineTimer = new Timer(REFINE_DELAY, new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    refineTiles = true;
+                    repaint();
+                }
+            });
+            refineTimer.setRepeats(false);
+        }
+
+        refineTimer.restart();
+    }
+
+    /**
+     * Prepara el cuadro de baldosas pintadas en paralelo para el repintado
+     * actual. Si el zoom cambió las baldosas del cuadro son descartadas, y si
+     * no, solo las que ya no son visibles. Los límites de las figuras, el
+     * índice espacial, la geometría de los enlaces y sus anclas se actualizan
+     * aquí, en el hilo de eventos, pues los hilos de pintado solo leen el
+     * estado de las figuras.
+     */
+    private void prepareFrame() {
+        if (frameZoom != zoom) {
+            frameTiles.clear();
+            pendingTiles.clear();
+            frameZoom = zoom;
+        }
+
+        int size = BaZTileCache.TILE_SIZE;
+        Rectangle visible = this.getVisibleRect();
+
+        for (Iterator<Point> iterator = frameTiles.keySet().iterator(); iterator.hasNext();) {
+            Point key = iterator.next();
+
+            if (!visible.intersects(key.x * size, key.y * size, size, size))
+                iterator.remove();
+        }
+
+        rootShape.prepareForPaint();
+    }
+
+    /**
+     * Solicita a los hilos de pintado la baldosa especificada para la
+     * generación y el zoom actuales, a menos que ya haya sido solicitada. El
+     * resultado es entregado en el hilo de eventos a <code>tileRendered</code>.
+     *
+     * @param executor
+     *        Hilos de pintado.
+     * @param key
+     *        Columna y fila de la baldosa.
+     * @param generation
+     *        Generación de las figuras con la que se pinta la baldosa.
+     */
+    private void submitTile(ExecutorService executor, final Point key, final long generation) {
+        Long pending = pendingTiles.get(key);
+
+        if (pending != null && pending.longValue() == generation)
+            return;
+
+        pendingTiles.put(key, Long.valueOf(generation));
+
+        final float tileZoom = zoom;
+
+        executor.execute(new Runnable() {
+            public void run() {
+                BufferedImage tile = null;
+
+                // Las figuras pueden cambiar mientras se pinta la baldosa; en
+                // ese caso la generación cambia y el resultado es descartado.
+                try {
+                    if (renderGeneration.get() == generation)
+                        tile = renderTile(key.x, key.y, tileZoom);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.FINE, "Error al pintar una baldosa", e);
+                }
+
+                final BufferedImage result = tile;
+
+                SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        tileRendered(key, generation, tileZoom, result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Recibe en el hilo de eventos una baldosa pintada en paralelo. Si las
+     * figuras o el zoom cambiaron mientras se pintaba la baldosa, ésta es
+     * descartada y su región repintada para solicitarla de nuevo; si no, se
+     * añade al cuadro actual, y a la memoria de baldosas si está habilitada.
+     *
+     * @param key
+     *        Columna y fila de la baldosa.
+     * @param generation
+     *        Generación de las figuras con la que se pintó la baldosa.
+     * @param tileZoom
+     *        Zoom con el que se pintó la baldosa.
+     * @param tile
+     *        Imagen de la baldosa, o <code>null</code> si no pudo ser pintada.
+     */
+    protected void tileRendered(Point key, long generation, float tileZoom, BufferedImage tile) {
+        Long pending = pendingTiles.get(key);
+
+        if (pending != null && pending.longValue() == generation)
+            pendingTiles.remove(key);
+
+        if (tile == null || renderExecutor == null || tileZoom != zoom || tileZoom != frameZoom)
+            return;
+
+        int size = BaZTileCache.TILE_SIZE;
+
+        if (generation == renderGeneration.get()) {
+            frameTiles.put(key, new FrameTile(tile, generation));
+
+            if (tileCacheEnabled)
+                tileCache.put(BaZTileCache.getZoomLevel(tileZoom), key.x, key.y, tile);
+        }
+
+        this.repaint(key.x * size, key.y * size, size, size);
+    }
+
+    /**
+     * Pinta en una nueva imagen las figuras que se encuentran en la baldosa
+     * especificada con el nivel de zoom especificado.
+     *
+     * @param tx
+     *        Columna de la baldosa.
+     * @param ty
+     *        Fila de la baldosa.
+     * @param tileZoom
+     *        Zoom con el que se pinta la baldosa.
+     *
+     * @return Imagen de la baldosa.
+     */
+    protected BufferedImage renderTile(int tx, int ty, float tileZoom) {
+        int size = BaZTileCache.TILE_SIZE;
+        BufferedImage tile = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D tileGraphics = tile.createGraphics();
+
+        if(smoothGraphics)
+            tileGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,RenderingHints.VALUE_ANTIALIAS_ON);
+
+        tileGraphics.translate(-tx * size, -ty * size);
+        tileGraphics.scale(tileZoom, tileZoom);
+
+        Rectangle clip = new Rectangle((int) Math.floor(tx * size / tileZoom), (int) Math.floor(ty * size / tileZoom),
+                (int) Math.ceil(size / tileZoom) + 1, (int) Math.ceil(size / tileZoom) + 1);
+        clip.grow(CULLING_MARGIN, CULLING_MARGIN);
+
+        rootShape.paintRecursive(tileGraphics, clip, null, false);
+        tileGraphics.dispose();
+
+        return tile;
+    }
+
+    /**
+     * Determina si el hilo actual es uno de los hilos de pintado paralelo de
+     * algún lienzo. Las figuras consultan éste método para no modificar su
+     * estado mientras son pintadas por fuera del hilo de eventos.
+     *
+     * @return <code>true</code> si el hilo actual es un hilo de pintado.
+     */
+    public static boolean isRenderThread() {
+        return Thread.currentThread() instanceof RenderThread;
+    }
+
+    /**
+     * Hilo de pintado paralelo de las baldosas.
+     */
+    private static final class RenderThread extends Thread {
+
+        RenderThread(Runnable task) {
+            super(task, "BaZCanvas-render");
+        }
+    }
+
+    /**
+     * Baldosa del último cuadro pintado en paralelo, junto con la generación
+     * de las figuras con la que fue pintada.
+     */
+    private static final class FrameTile {
+        final BufferedImage image;
+        final long generation;
+
+        FrameTile(BufferedImage image, long generation) {
+            this.image = image;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Descarta las baldosas de la memoria que interceptan las regiones
+     * modificadas desde el último repintado, tanto las que ocupaban las
+     * figuras modificadas como las que ocupan actualmente.
+     */
+    protected void invalidateModifiedTiles() {
+        Rectangle[] regions;
+        BaZAbstractShape[] shapes;
+
+        synchronized(dirtyLock) {
+            regions = modifiedRegions.toArray(new Rectangle[modifiedRegions.size()]);
+            shapes = modifiedShapes.toArray(new BaZAbstractShape[modifiedShapes.size()]);
+
+            modifiedRegions.clear();
+            modifiedShapes.clear();
+        }
+
+        for (int i = 0; i < regions.length; i++)
+            tileCache.invalidate(regions[i]);
+
+        for (int i = 0; i < shapes.length; i++) {
+            BaZRect rect = shapes[i].bounds();
+
+            if (rect == null)
+                continue;
+
+            Rectangle region = rect.getRectangle();
+            region.grow(DIRTY_MARGIN, DIRTY_MARGIN);
+            tileCache.invalidate(region);
+        }
+    }
+
+    /**
+     * Determina si las posiciones de las figuras se guardan en el almacén de
+     * posiciones del lienzo.
+     *
+     * @return <code>true</code> si el almacén de posiciones está habilitado.
+     */
+    public boolean isPositionStoreEnabled() {
+        return positionStore != null;
+    }
+
+    /**
+     * Habilita o deshabilita el almacén de posiciones del lienzo. Con el
+     * almacén habilitado las posiciones de todas las figuras se guardan en
+     * arreglos paralelos, de manera que mover las figuras seleccionadas o la
+     * figura raíz se reduce a un recorrido de esos arreglos.
+     *
+     * @param enabled
+     *        <code>true</code> para habilitar el almacén de posiciones.
+     */
+    public void setPositionStoreEnabled(boolean enabled) {
+        if (enabled == (positionStore != null))
+            return;
+
+        positionStore = enabled ? new BaZPositionStore() : null;
+
+        if (rootShape != null)
+            rootShape.setCanvas(this);
+    }
+
+    /**
+     * Retorna el almacén de posiciones de las figuras del lienzo.
+     *
+     * @return Almacén de posiciones, o <code>null</code> si está deshabilitado.
+     */
+    public BaZPositionStore getPositionStore() {
+        return positionStore;
+    }
+
+    /**
+     * Determina si el lienzo se pinta por medio de la memoria de baldosas.
+     *
+     * @return <code>true</code> si la memoria de baldosas está habilitada.
+     */
+    public boolean isTileCacheEnabled() {
+        return tileCacheEnabled;
+    }
+
+    /**
+     * Habilita o deshabilita la memoria de baldosas del lienzo. Las figuras
+     * notifican al lienzo cada cambio de geometría o de apariencia, por lo que
+     * solo las baldosas que éstas ocupan son descartadas.
+     *
+     * @param enabled
+     *        <code>true</code> para habilitar la memoria de baldosas.
+     */
+    public void setTileCacheEnabled(boolean enabled) {
+        this.tileCacheEnabled = enabled;
+
+        synchronized(dirtyLock) {
+            modifiedRegions.clear();
+            modifiedShapes.clear();
+        }
+
+        tileCache.clear();
+        this.repaint();
+    }
+
+    /**
+     * Determina si las baldosas del lienzo se pintan en paralelo.
+     *
+     * @return <code>true</code> si el pintado paralelo está habilitado.
+     */
+    public boolean isParallelRenderingEnabled() {
+        return renderExecutor != null;
+    }
+
+    /**
+     * Habilita o deshabilita el pintado paralelo del lienzo. Con el pintado
+     * paralelo habilitado el área visible se divide en baldosas que son
+     * pintadas por un grupo de hilos, uno por procesador, sin bloquear el hilo
+     * de eventos. Mientras tanto el lienzo muestra las baldosas del último
+     * cuadro terminado, y cada baldosa terminada repinta su región. Las
+     * baldosas pintadas mientras las figuras o el zoom cambiaban son
+     * descartadas y solicitadas de nuevo.
+     *
+     * @param enabled
+     *        <code>true</code> para habilitar el pintado paralelo.
+     */
+    public void setParallelRenderingEnabled(boolean enabled) {
+        if (enabled == (renderExecutor != null))
+            return;
+
+        if (enabled) {
+            renderExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                public Thread newThread(Runnable task) {
+                    Thread thread = new RenderThread(task);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        } else {
+            renderExecutor.shutdown();
+            renderExecutor = null;
+        }
+
+        frameTiles.clear();
+        pendingTiles.clear();
+
+        this.repaint();
+    }
+
+    /**
+     * Retorna el nivel de detalle con el que se pintan las figuras. Si se
+     * modifican sus umbrales se deberá repintar el lienzo y descartar la
+     * memoria de baldosas.
+     *
+     * @return Nivel de detalle del lienzo.
+     */
+    public BaZLevelOfDetail getLevelOfDetail() {
+        return levelOfDetail;
+    }
+
+    /**
+     * Modifica el nivel de detalle con el que se pintan las figuras.
+     *
+     * @param levelOfDetail
+     *        Nivel de detalle para el lienzo.
+     */
+    public void setLevelOfDetail(BaZLevelOfDetail levelOfDetail) {
+        this.levelOfDetail = levelOfDetail;
+
+        renderGeneration.incrementAndGet();
+        tileCache.clear();
+        this.repaint();
+    }
+
+    /**
+     * Retorna la memoria de baldosas del lienzo.
+     *
+     * @return Memoria de baldosas.
+     */
+    public BaZTileCache getTileCache() {
+        return tileCache;
+    }
+
+    /**
+     * Crea una nueva transacción para modificar en lote las figuras del lienzo
+     * desde cualquier hilo.
+     *
+     * @return Transacción vacia asociada a éste lienzo.
+     */
+    public BaZTransaction beginTransaction() {
+        return new BaZTransaction(this);
+    }
+
+    /**
+     * Recibe una transacción confirmada y solicita aplicarla en el hilo de
+     * eventos. Si ya hay una solicitud pendiente la transacción se aplica
+     * junto con las demás transacciones de dicha solicitud.
+     *
+     * @param transaction
+     *        Transacción confirmada.
+     */
+    void commitTransaction(BaZTransaction transaction) {
+        synchronized(pendingTransactions) {
+            pendingTransactions.add(transaction);
+
+            if (transactionsScheduled)
+                return;
+
+            transactionsScheduled = true;
+        }
+
+        SwingUtilities.invokeLater(transactionsTask);
+    }
+
+    /**
+     * Aplica en orden todas las transacciones confirmadas pendientes y repinta
+     * una sola vez la región que éstas modificaron. Mientras se aplican, las
+     * notificaciones de <code>shapeModified</code> solo se acumulan, y al
+     * terminar la generación de las baldosas, la imagen de figuras estáticas
+     * y las regiones a repintar se actualizan una sola vez por figura.
+     * Si una modificación falla, las modificaciones anteriores de su
+     * transacción permanecen aplicadas y las siguientes son omitidas; el error
+     * es registrado y las demás transacciones son aplicadas de todas formas.
+     * Debe ser llamado en el hilo de eventos.
+     */
+    protected void applyPendingTransactions() {
+        BaZTransaction[] transactions;
+
+        synchronized(pendingTransactions) {
+            transactions = pendingTransactions.toArray(new BaZTransaction[pendingTransactions.size()]);
+            pendingTransactions.clear();
+            transactionsScheduled = false;
+        }
+
+        batchedShapes = new LinkedHashMap<BaZAbstractShape, BaZRect>();
+
+        try {
+            for (int i = 0; i < transactions.length; i++) {
+                try {
+                    transactions[i].apply();
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Error al aplicar una transacción", e);
+                }
+            }
+        } finally {
+            Map<BaZAbstractShape, BaZRect> batched = batchedShapes;
+            batchedShapes = null;
+
+            if (!batched.isEmpty())
+                renderGeneration.incrementAndGet();
+
+            for (Iterator<Map.Entry<BaZAbstractShape, BaZRect>> iterator = batched.entrySet().iterator(); iterator.hasNext();) {
+                Map.Entry<BaZAbstractShape, BaZRect> entry = iterator.next();
+
+                this.discardStaticLayer(entry.getKey());
+                this.markModified(entry.getKey(), entry.getValue());
+            }
+        }
+
+        this.repaintDirtyRegion();
+    }
+
+    /**
+     * Añade al conjunto de figuras excluidas la figura especificada y todas
+     * las figuras que ésta contiene.
+     */
+    private void excludeShape(BaZAbstractShape shape) {
+        excludedShapes.add(shape);
+
+        List<BaZAbstractShape> shapes = shape.getShapes();
+
+        if (shapes == null)
+            return;
+
+        for (int i = 0; i < shapes.size(); i++)
+            this.excludeShape(shapes.get(i));
+    }
+
+    /**
+     * Retorna el número de figuras que no fueron pintadas en el último pintado
+     * del lienzo por encontrarse fuera del área visible.
+     *
+     * @return Número de figuras omitidas en el último pintado.
+     */
+    public int getCulledShapeCount() {
+        return culledShapeCount;
+    }
+
+    /**
+     * Marca la figura especificada para ser repintada en el siguiente llamado
+     * a <code>repaintDirtyRegion()</code>. La región a repintar es calculada a
+     * partir de los límites que tenga la figura en dicho momento.
+     *
+     * @param shape
+     *        Figura a ser repintada.
+     */
+    public void addDirtyShape(BaZAbstractShape shape) {
+        synchronized(dirtyLock) {
+            dirtyShapes.add(shape);
+        }
+    }
+
+    /**
+     * Notifica al lienzo que la figura especificada ha sido modificada, de
+     * manera que la región que ocupaba y la que ocupa sean repintadas. Si la
+     * figura hace parte de la imagen de figuras estáticas, ésta es descartada,
+     * y las baldosas que interceptan ambas regiones son descartadas antes del
+     * siguiente repintado.
+     *
+     * @param shape
+     *        Figura modificada.
+     * @param oldBounds
+     *        Límites que tenía la figura antes de ser modificada, puede ser
+     *        <code>null</code> si no se conocen.
+     */
+    public void shapeModified(BaZAbstractShape shape, BaZRect oldBounds) {
+        if (batchedShapes != null && SwingUtilities.isEventDispatchThread()) {
+            // Solo se conservan los límites previos a la primera modificación,
+            // pues las posiciones intermedias nunca fueron pintadas.
+            if (oldBounds != null && batchedShapes.get(shape) == null)
+                batchedShapes.put(shape, new BaZRect(oldBounds));
+            else if (!batchedShapes.containsKey(shape))
+                batchedShapes.put(shape, null);
+
+            return;
+        }
+
+        renderGeneration.incrementAndGet();
+
+        this.discardStaticLayer(shape);
+        this.markModified(shape, oldBounds);
+    }
+
+    /**
+     * Descarta la imagen de figuras estáticas si la figura especificada hace
+     * parte de ella.
+     *
+     * @param shape
+     *        Figura modificada.
+     */
+    private void discardStaticLayer(BaZAbstractShape shape) {
+        // Las figuras excluidas y la imagen de figuras estáticas solo son
+        // accedidas en el hilo de eventos; desde otros hilos la imagen se
+        // marca para ser descartada en el siguiente repintado.
+        if (!SwingUtilities.isEventDispatchThread())
+            staticLayerStale = true;
+        else if (staticLayer != null && !excludedShapes.contains(shape))
+            staticLayer = null;
+    }
+
+    /**
+     * Marca para ser descartadas las baldosas que interceptan la región que
+     * ocupaba y la que ocupa la figura especificada, y marca ambas regiones
+     * para ser repintadas.
+     *
+     * @param shape
+     *        Figura modificada.
+     * @param oldBounds
+     *        Límites que tenía la figura antes de ser modificada, puede ser
+     *        <code>null</code> si no se conocen.
+     */
+    private void markModified(BaZAbstractShape shape, BaZRect oldBounds) {
+        if (tileCacheEnabled) {
+            synchronized(dirtyLock) {
+                if (oldBounds != null) {
+                    Rectangle region = oldBounds.getRectangle();
+                    region.grow(DIRTY_MARGIN, DIRTY_MARGIN);
+                    modifiedRegions.add(region);
+                }
+
+                modifiedShapes.add(shape);
+            }
+        }
+
+        this.addDirtyRegion(oldBounds);
+        this.addDirtyShape(shape);
+    }
+
     /* --- METODOS INTERFAZ BaZCanvasDelegate --- */
 
+    @Override
+    public void startRetainedLayer(Collection<? extends BaZAbstractShape> shapes) {
+        this.stopRetainedLayer();
+
+        for (Iterator<? extends BaZAbstractShape> iterator = shapes.iterator(); iterator.hasNext();) {
+            BaZAbstractShape shape = iterator.next();
+
+            liveShapes.add(shape);
+            this.excludeShape(shape);
+        }
+
+        // Los enlaces de las figuras que se mueven también cambian en cada paso.
+        BaZAbstractShape[] moving = excludedShapes.toArray(new BaZAbstractShape[excludedShapes.size()]);
+
+        for (int i = 0; i < moving.length; i++) {
+            List<BaZShapeLink> links = new ArrayList<BaZShapeLink>(moving[i].getOutgoingLinks());
+            links.addAll(moving[i].getIncomingLinks());
+
+            for (int j = 0; j < links.size(); j++) {
+                BaZShapeLink link = links.get(j);
+
+                if (excludedShapes.add(link))
+                    liveShapes.add(0, link);
+            }
+        }
+
+        retainedLayer = true;
+    }
+
+    @Override
+    public void stopRetainedLayer() {
+        if (!retainedLayer)
+            return;
+
+        // Las figuras móviles fueron pintadas sobre las demás, se repinta su
+        // región para restaurar el orden original.
+        for (int i = 0; i < liveShapes.size(); i++)
+            this.addDirtyShape(liveShapes.get(i));
+
+        retainedLayer = false;
+        staticLayer = null;
+        staticLayerBounds = null;
+        liveShapes.clear();
+        excludedShapes.clear();
+
+        this.repaintDirtyRegion();
+    }
+
+    @Override
+    public List<BaZAbstractShape> getSelectedShapes() {
+        return selectedTimer.getElements();
+    }
+
+    @Override
+    public void addDirtyRegion(BaZRect rect) {
+        if (rect == null)
+            return;
+
+        synchronized(dirtyLock) {
+            if (dirtyRegion == null)
+                dirtyRegion = new BaZRect(rect);
+            else
+                dirtyRegion.unionInto(rect, dirtyRegion);
+        }
+    }
+
+    @Override
+    public void repaintDirtyRegion() {
+        BaZRect region;
+        BaZAbstractShape[] shapes;
+
+        synchronized(dirtyLock) {
+            region = dirtyRegion;
+            shapes = dirtyShapes.toArray(new BaZAbstractShape[dirtyShapes.size()]);
+
+            dirtyRegion = null;
+            dirtyShapes.clear();
+        }
+
+        // Los límites se calculan por fuera del cerrojo, pues las figuras
+        // notifican sus cambios sosteniendo su propio cerrojo.
+        for (int i = 0; i < shapes.length; i++) {
+            BaZRect rect = shapes[i].bounds();
+
+            if (rect == null)
+                continue;
+
+            if (region == null)
+                region = new BaZRect(rect);
+            else
+                region.unionInto(rect, region);
+        }
+
+        if (region == null)
+            return;
+
+        region.inset(-DIRTY_MARGIN);
+
+        int x = (int) Math.floor(region.getX() * zoom);
+        int y = (int) Math.floor(region.getY() * zoom);
+        int width = (int) Math.ceil((region.getX() + region.getWidth()) * zoom) - x;
+        int height = (int) Math.ceil((region.getY() + region.getHeight()) * zoom) - y;
+
+        this.repaint(x, y, width, height);
+    }
+
     @Override
     public BaZAbstractShape getRootShape() {
         return rootShape;
@@ -314,17 +1458,17 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
         if (rootShape == null)
             return;
 
-        Iterator iterator = rootShape.getShapes().iterator();
+        rectSelectedShapes.clear();
 
-        while (iterator.hasNext()) {
-            BaZAbstractShape shape = (BaZAbstractShape) iterator.next();
-            shape.setSelected(select);
+        List<BaZAbstractShape> shapes = rootShape.getShapes();
 
-            if (select)
-                addSelectedShape(shape);
-            else
-                removeSelectedShape(shape);
-        }
+        for (int i = 0; i < shapes.size(); i++)
+            shapes.get(i).setSelected(select);
+
+        if (select)
+            this.addSelectedShapes(shapes);
+        else
+            this.removeSelectedShapes(shapes);
     }
 
     @Override
@@ -347,6 +1491,28 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
         selectedTimer.remove(shape);
     }
 
+    /**
+     * Añade las figuras especificadas a las figuras seleccionadas, actualizando
+     * el timer de selección una sola vez.
+     *
+     * @param shapes
+     *        Figuras a añadir a la selección.
+     */
+    public void addSelectedShapes(Collection<? extends BaZAbstractShape> shapes) {
+        selectedTimer.addAll(shapes);
+    }
+
+    /**
+     * Remueve las figuras especificadas de las figuras seleccionadas,
+     * actualizando el timer de selección una sola vez.
+     *
+     * @param shapes
+     *        Figuras a remover de la selección.
+     */
+    public void removeSelectedShapes(Collection<? extends BaZAbstractShape> shapes) {
+        selectedTimer.removeAll(shapes);
+    }
+
     @Override
     public boolean isSelectedShape(BaZAbstractShape shape) {
         return selectedTimer.contains(shape);
@@ -356,10 +1522,23 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
     public void moveSelectedShapes(double dx, double dy) {
         Iterator iterator = selectedTimer.getElements().iterator();
 
+        if (positionStore == null) {
+            while (iterator.hasNext()) {
+                BaZAbstractShape shape = (BaZAbstractShape) iterator.next();
+                shape.move(dx, dy);
+            }
+
+            return;
+        }
+
+        List<BaZAbstractShape> moved = new ArrayList<BaZAbstractShape>();
+
         while (iterator.hasNext()) {
             BaZAbstractShape shape = (BaZAbstractShape) iterator.next();
-            shape.move(dx, dy);
+            shape.collectSubtree(moved);
         }
+
+        BaZAbstractShape.moveAll(positionStore, moved, dx, dy);
     }
 
     @Override
@@ -369,19 +1548,38 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
         
         BaZRect rect = new BaZRect(x, y , dx, dy);
 
-        Iterator iterator = rootShape.getShapes().iterator();
+        // Solo se modifican las figuras que entran o salen del rectangulo
+        // respecto al paso anterior del arrastre.
+        List<BaZAbstractShape> shapes = rootShape.searchShapesInRect(rect);
+        Set<BaZAbstractShape> selection = new HashSet<BaZAbstractShape>(shapes);
+        List<BaZAbstractShape> entered = new ArrayList<BaZAbstractShape>();
+        List<BaZAbstractShape> exited = new ArrayList<BaZAbstractShape>();
 
-        while (iterator.hasNext()) {
-            BaZAbstractShape shape = (BaZAbstractShape) iterator.next();
+        for (int i = 0; i < shapes.size(); i++) {
+            BaZAbstractShape shape = shapes.get(i);
 
-            boolean selected = BaZRect.getIntersect(rect, shape.bounds());
-            shape.setSelected(selected);
-            
-            if (selected)
-                this.addSelectedShape(shape);
-            else
-                this.removeSelectedShape(shape);
+            if (!rectSelectedShapes.contains(shape)) {
+                shape.setSelected(true);
+                entered.add(shape);
+            }
         }
+
+        for (Iterator<BaZAbstractShape> iterator = rectSelectedShapes.iterator(); iterator.hasNext();) {
+            BaZAbstractShape shape = iterator.next();
+
+            if (!selection.contains(shape)) {
+                shape.setSelected(false);
+                exited.add(shape);
+            }
+        }
+
+        if (!entered.isEmpty())
+            this.addSelectedShapes(entered);
+
+        if (!exited.isEmpty())
+            this.removeSelectedShapes(exited);
+
+        rectSelectedShapes = selection;
     }
 
     /* Éste método deberá ser sobre-escrito por las clases que hereden de ésta clase. */
@@ -412,12 +1610,39 @@ public class BaZCanvas extends BaZPanel implements BaZCanvasDelegate, BaZTimerDe
      /* --- METODO INTERFAZ BaZTimerDelegate --- */
     @Override
     public void timerFired(BaZTimer timer) {
+        BaZAlphaVariator variator = null;
+
         if (timer == selectedTimer)
-            selectedAlphaVariator.run();
+            variator = selectedAlphaVariator;
         else if (timer == focusedTimer)
-            focusedAlphaVariator.run();
+            variator = focusedAlphaVariator;
 
-        this.repaint();
+        if (variator != null) {
+            AlphaComposite previous = BaZPaintCache.getComposite(variator.getAlphaValue());
+            variator.run();
+
+            // El resaltado no cambia si el alpha no cambia de nivel o si el
+            // nivel de detalle no pinta los resaltados.
+            if (previous == BaZPaintCache.getComposite(variator.getAlphaValue())
+                    || !levelOfDetail.isHighlightVisible(zoom))
+                return;
+        }
+
+        // Solo cambia el resaltado de las figuras contenidas en el timer. Las
+        // figuras enfocadas que también están seleccionadas pintan el
+        // resaltado de selección, por lo que no cambian con el alpha de foco.
+        Iterator iterator = timer.getElements().iterator();
+
+        while (iterator.hasNext()) {
+            BaZAbstractShape shape = (BaZAbstractShape) iterator.next();
+
+            if (timer == focusedTimer && shape.isSelected())
+                continue;
+
+            this.addDirtyShape(shape);
+        }
+
+        this.repaintDirtyRegion();
     }
 
     /* --- METODO INTERFAZ BaZMenuItemDelegate --- */
@@ -6,7 +6,10 @@
 package com.baz.canvas;
 
 import com.baz.shape.BaZAbstractShape;
+import com.baz.shape.base.BaZRect;
 import java.awt.Point;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Intefaz que será implementada por la clase <code>BaZCanvas</code> y gestiona
@@ -24,6 +27,47 @@ public interface BaZCanvasDelegate {
      */
     public void repaint();
 
+    /**
+     * Repinta únicamente la región del componente que ha sido marcada como
+     * modificada desde el último repintado parcial. Si no hay regiones
+     * marcadas no se realiza nada.
+     */
+    public void repaintDirtyRegion();
+
+    /**
+     * Marca la región especificada para ser repintada en el siguiente llamado
+     * a <code>repaintDirtyRegion()</code>.
+     *
+     * @param rect
+     *        Región a repintar, en coordenadas del lienzo sin zoom. Si es
+     *        <code>null</code> no se realiza nada.
+     */
+    public void addDirtyRegion(BaZRect rect);
+
+    /**
+     * Inicia el modo de capa retenida, utilizado durante los arrastres. Las
+     * figuras que no se mueven son pintadas una sola vez en una imagen que se
+     * reutiliza en cada repintado, y solo las figuras especificadas junto con
+     * sus enlaces son pintadas de nuevo.
+     *
+     * @param shapes
+     *        Figuras que se moverán durante el arrastre. Puede ser vacia.
+     */
+    public void startRetainedLayer(Collection<? extends BaZAbstractShape> shapes);
+
+    /**
+     * Finaliza el modo de capa retenida y libera la imagen de las figuras
+     * estáticas.
+     */
+    public void stopRetainedLayer();
+
+    /**
+     * Retorna las figuras que se encuentran seleccionadas en el lienzo.
+     *
+     * @return Lista de figuras seleccionadas.
+     */
+    public List<BaZAbstractShape> getSelectedShapes();
+
     /**
      * Éste método sirve para determinar que objeto <code>BaZAbstractShape</code>
      * contiene el punto especificado dentro de su frontera.
@@ -0,0 +1,210 @@
+/*
+ * BaZTileCache.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.canvas;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Memoria de baldosas (tiles) pintadas del lienzo. Cada baldosa es una imagen
+ * de tamaño fijo que cubre una región del lienzo en pixeles para un nivel de
+ * zoom determinado, de manera que al repintar el lienzo solo es necesario
+ * copiar las imágenes en lugar de pintar de nuevo todas las figuras.
+ * Las baldosas se identifican por el nivel de zoom y su posición, y cuando se
+ * supera el número máximo de baldosas se descartan las menos usadas
+ * recientemente. Las baldosas de los niveles de zoom visitados forman una
+ * pirámide, de la cual el lienzo escala el nivel más cercano mientras pinta
+ * las baldosas de un nivel nuevo.
+ *
+ * Ésta clase no es sincronizada; quien la utilice deberá de gestionar el
+ * acceso concurrente a ella.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public class BaZTileCache {
+
+    /** Tamaño, en pixeles, del lado de cada baldosa. */
+    public static final int TILE_SIZE = 256;
+
+    /** Número máximo de baldosas por defecto. */
+    public static final int DEFAULT_MAX_TILES = 128;
+
+    /** Número máximo de baldosas que se mantienen en memoria. */
+    private int maxTiles = DEFAULT_MAX_TILES;
+
+    /** Baldosas en orden de uso, de la menos a la más usada recientemente. */
+    private Map<Key, BufferedImage> tiles = new LinkedHashMap<Key, BufferedImage>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+            return size() > maxTiles;
+        }
+    };
+
+    /**
+     * Retorna el nivel de zoom con el que se identifican las baldosas pintadas
+     * con el zoom especificado.
+     *
+     * @param zoom
+     *        Nivel de zoom del lienzo.
+     *
+     * @return Nivel de zoom de las baldosas.
+     */
+    public static int getZoomLevel(float zoom) {
+        return Math.round(zoom * 100);
+    }
+
+    /**
+     * Retorna los niveles de zoom de los que hay al menos una baldosa en
+     * memoria.
+     *
+     * @return Niveles de zoom de las baldosas en memoria, sin repetir.
+     */
+    public int[] getZoomLevels() {
+        Set<Integer> levels = new LinkedHashSet<Integer>();
+
+        for (Iterator<Key> iterator = tiles.keySet().iterator(); iterator.hasNext();)
+            levels.add(Integer.valueOf(iterator.next().zoomLevel));
+
+        int[] result = new int[levels.size()];
+        int i = 0;
+
+        for (Iterator<Integer> iterator = levels.iterator(); iterator.hasNext();)
+            result[i++] = iterator.next().intValue();
+
+        return result;
+    }
+
+    /**
+     * Retorna la baldosa pintada para el nivel de zoom y la posición
+     * especificados.
+     *
+     * @param zoomLevel
+     *        Nivel de zoom de la baldosa.
+     * @param tx
+     *        Columna de la baldosa.
+     * @param ty
+     *        Fila de la baldosa.
+     *
+     * @return Imagen de la baldosa, o <code>null</code> si no se encuentra.
+     */
+    public BufferedImage get(int zoomLevel, int tx, int ty) {
+        return tiles.get(new Key(zoomLevel, tx, ty));
+    }
+
+    /**
+     * Guarda la baldosa pintada para el nivel de zoom y la posición
+     * especificados.
+     *
+     * @param zoomLevel
+     *        Nivel de zoom de la baldosa.
+     * @param tx
+     *        Columna de la baldosa.
+     * @param ty
+     *        Fila de la baldosa.
+     * @param tile
+     *        Imagen de la baldosa.
+     */
+    public void put(int zoomLevel, int tx, int ty, BufferedImage tile) {
+        tiles.put(new Key(zoomLevel, tx, ty), tile);
+    }
+
+    /**
+     * Descarta, en todos los niveles de zoom, las baldosas que interceptan el
+     * rectangulo especificado.
+     *
+     * @param rect
+     *        Rectangulo en coordenadas del lienzo sin zoom.
+     */
+    public void invalidate(Rectangle rect) {
+        for (Iterator<Key> iterator = tiles.keySet().iterator(); iterator.hasNext();) {
+            Key key = iterator.next();
+            double scale = TILE_SIZE * 100.0 / key.zoomLevel;
+
+            double x = key.tx * scale;
+            double y = key.ty * scale;
+
+            if (rect.x <= x + scale && rect.x + rect.width >= x
+                    && rect.y <= y + scale && rect.y + rect.height >= y)
+                iterator.remove();
+        }
+    }
+
+    /**
+     * Descarta todas las baldosas.
+     */
+    public void clear() {
+        tiles.clear();
+    }
+
+    /**
+     * Retorna el número de baldosas en memoria.
+     *
+     * @return Número de baldosas.
+     */
+    public int size() {
+        return tiles.size();
+    }
+
+    /**
+     * Retorna el número máximo de baldosas que se mantienen en memoria.
+     *
+     * @return Número máximo de baldosas.
+     */
+    public int getMaxTiles() {
+        return maxTiles;
+    }
+
+    /**
+     * Modifica el número máximo de baldosas que se mantienen en memoria.
+     * Cada baldosa ocupa <code>TILE_SIZE * TILE_SIZE * 4</code> bytes.
+     *
+     * @param maxTiles
+     *        Número máximo de baldosas.
+     */
+    public void setMaxTiles(int maxTiles) {
+        this.maxTiles = Math.max(1, maxTiles);
+
+        for (Iterator<Key> iterator = tiles.keySet().iterator(); tiles.size() > this.maxTiles;) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Identificador de una baldosa.
+     */
+    private static final class Key {
+        final int zoomLevel, tx, ty;
+
+        Key(int zoomLevel, int tx, int ty) {
+            this.zoomLevel = zoomLevel;
+            this.tx = tx;
+            this.ty = ty;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key))
+                return false;
+
+            Key key = (Key) object;
+            return key.zoomLevel == zoomLevel && key.tx == tx && key.ty == ty;
+        }
+
+        @Override
+        public int hashCode() {
+            return (zoomLevel * 31 + tx) * 31 + ty;
+        }
+    }
+}
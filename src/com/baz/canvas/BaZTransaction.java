@@ -0,0 +1,263 @@
+/*
+ * BaZTransaction.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.canvas;
+
+import com.baz.shape.BaZAbstractShape;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lote de modificaciones sobre las figuras de un lienzo. Las modificaciones
+ * son registradas desde cualquier hilo sin afectar las figuras, y al confirmar
+ * la transacción son aplicadas juntas en el hilo de eventos de Swing, en el
+ * mismo orden en que fueron registradas.
+ * Las transacciones confirmadas antes de que el hilo de eventos las aplique se
+ * aplican en un solo paso, con una única actualización de las baldosas y de la
+ * imagen de figuras estáticas por figura modificada y un único repintado de la
+ * región modificada.
+ * Cada modificación se aplica por medio de los métodos normales de las
+ * figuras, por lo que cada una invalida la geometría de su figura. Las
+ * transacciones no se deshacen: si una modificación falla, las anteriores
+ * permanecen aplicadas y las siguientes de la misma transacción son omitidas.
+ *
+ * Ésta clase es sincronizada, por lo que varios hilos pueden registrar
+ * modificaciones en la misma transacción.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public class BaZTransaction {
+
+    /** Lienzo donde serán aplicadas las modificaciones. */
+    private final BaZCanvas canvas;
+
+    /** Modificaciones registradas, en el orden en que serán aplicadas. */
+    private List<Runnable> operations = new ArrayList<Runnable>();
+
+    /** Bandera que determina si la transacción ya fue confirmada o cancelada. */
+    private boolean closed = false;
+
+    /**
+     * Construye una transacción vacia para el lienzo especificado. Las
+     * transacciones son creadas por medio de <code>BaZCanvas.beginTransaction()</code>.
+     *
+     * @param canvas
+     *        Lienzo donde serán aplicadas las modificaciones.
+     */
+    BaZTransaction(BaZCanvas canvas) {
+        this.canvas = canvas;
+    }
+
+    /**
+     * Registra una modificación arbitraria. La modificación es ejecutada en el
+     * hilo de eventos al aplicar la transacción.
+     *
+     * @param operation
+     *        Modificación a registrar.
+     */
+    public synchronized void add(Runnable operation) {
+        if (closed)
+            throw new IllegalStateException("La transacción ya fue confirmada o cancelada");
+
+        operations.add(operation);
+    }
+
+    /**
+     * Registra el cambio de posición de la figura especificada.
+     *
+     * @param shape
+     *        Figura a modificar.
+     * @param x
+     *        Nueva coordenada X de la figura.
+     * @param y
+     *        Nueva coordenada Y de la figura.
+     */
+    public void setPosition(final BaZAbstractShape shape, final double x, final double y) {
+        this.add(new Runnable() {
+            public void run() {
+                shape.setPosition(x, y);
+            }
+        });
+    }
+
+    /**
+     * Registra el desplazamiento de la figura especificada junto con las
+     * figuras que contiene.
+     *
+     * @param shape
+     *        Figura a desplazar.
+     * @param dx
+     *        Diferencial en X.
+     * @param dy
+     *        Diferencial en Y.
+     */
+    public void move(final BaZAbstractShape shape, final double dx, final double dy) {
+        this.add(new Runnable() {
+            public void run() {
+                shape.move(dx, dy);
+            }
+        });
+    }
+
+    /**
+     * Registra el cambio del texto del centro de la figura especificada.
+     *
+     * @param shape
+     *        Figura a modificar.
+     * @param text
+     *        Nuevo texto de la figura.
+     */
+    public void setText(final BaZAbstractShape shape, final String text) {
+        this.add(new Runnable() {
+            public void run() {
+                shape.setText(text);
+            }
+        });
+    }
+
+    /**
+     * Registra el cambio del color de fondo de la figura especificada.
+     *
+     * @param shape
+     *        Figura a modificar.
+     * @param background
+     *        Nuevo color de fondo de la figura.
+     */
+    public void setBackground(final BaZAbstractShape shape, final Color background) {
+        this.add(new Runnable() {
+            public void run() {
+                shape.setBackground(background);
+            }
+        });
+    }
+
+    /**
+     * Registra el cambio del color de borde de la figura especificada.
+     *
+     * @param shape
+     *        Figura a modificar.
+     * @param borderColor
+     *        Nuevo color de borde de la figura.
+     */
+    public void setBorderColor(final BaZAbstractShape shape, final Color borderColor) {
+        this.add(new Runnable() {
+            public void run() {
+                shape.setBorderColor(borderColor);
+            }
+        });
+    }
+
+    /**
+     * Registra el cambio del color del texto de la figura especificada.
+     *
+     * @param shape
+     *        Figura a modificar.
+     * @param textColor
+     *        Nuevo color del texto de la figura.
+     */
+    public void setTextColor(final BaZAbstractShape shape, final Color textColor) {
+        this.add(new Runnable() {
+            public void run() {
+                shape.setTextColor(textColor);
+            }
+        });
+    }
+
+    /**
+     * Registra la adición de una figura a la lista de figuras embebidas de otra.
+     *
+     * @param parent
+     *        Figura que contendrá a la figura añadida.
+     * @param shape
+     *        Figura a añadir.
+     */
+    public void addShape(final BaZAbstractShape parent, final BaZAbstractShape shape) {
+        this.add(new Runnable() {
+            public void run() {
+                parent.addShape(shape);
+            }
+        });
+    }
+
+    /**
+     * Registra la remoción de una figura de la lista de figuras embebidas de otra.
+     *
+     * @param parent
+     *        Figura que contiene a la figura a remover.
+     * @param shape
+     *        Figura a remover.
+     */
+    public void removeShape(final BaZAbstractShape parent, final BaZAbstractShape shape) {
+        this.add(new Runnable() {
+            public void run() {
+                parent.removeShape(shape);
+            }
+        });
+    }
+
+    /**
+     * Retorna el número de modificaciones registradas.
+     *
+     * @return Número de modificaciones.
+     */
+    public synchronized int size() {
+        return operations.size();
+    }
+
+    /**
+     * Determina si la transacción ya fue confirmada o cancelada, en cuyo caso
+     * no admite nuevas modificaciones.
+     *
+     * @return <code>true</code> si la transacción está cerrada.
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Confirma la transacción, entregando sus modificaciones al lienzo para
+     * que sean aplicadas en el hilo de eventos. Puede ser llamado desde
+     * cualquier hilo y retorna sin esperar a que sean aplicadas.
+     */
+    public void commit() {
+        synchronized(this) {
+            if (closed)
+                throw new IllegalStateException("La transacción ya fue confirmada o cancelada");
+
+            closed = true;
+        }
+
+        canvas.commitTransaction(this);
+    }
+
+    /**
+     * Cancela la transacción, descartando todas sus modificaciones.
+     */
+    public synchronized void rollback() {
+        closed = true;
+        operations = new ArrayList<Runnable>();
+    }
+
+    /**
+     * Aplica las modificaciones registradas. Es llamado por el lienzo en el
+     * hilo de eventos. Si una modificación lanza una excepción, ésta se
+     * propaga y las modificaciones siguientes no son aplicadas, mientras que
+     * las anteriores permanecen aplicadas.
+     */
+    void apply() {
+        List<Runnable> pending;
+
+        synchronized(this) {
+            pending = operations;
+            operations = new ArrayList<Runnable>();
+        }
+
+        for (int i = 0; i < pending.size(); i++)
+            pending.get(i).run();
+    }
+}
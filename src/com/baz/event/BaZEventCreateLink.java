@@ -6,6 +6,7 @@
 package com.baz.event;
 
 import com.baz.shape.base.BaZAnchor2D;
+import com.baz.shape.base.BaZRect;
 import com.baz.shape.base.BaZVector2D;
 import com.baz.canvas.BaZCanvas;
 import com.baz.shape.BaZAbstractShape;
@@ -40,6 +41,9 @@ public class BaZEventCreateLink extends BaZAbstractEvent {
     /** Figura de tipo <code>BaZAbstractLink</code> que se crea con el evento. */
     public BaZLinkArc linkArc = null;
 
+    /** Región que ocupaba el enlace en el último repintado. */
+    private BaZRect linkFrame = null;
+
     /**
      * Contruye el manejador para la creación de enlaces entre figuras.
      *
@@ -157,7 +161,10 @@ public class BaZEventCreateLink extends BaZAbstractEvent {
             this.removeExclisiveValue(BaZEventManager.EXCLUSIVE_CREATE_LINK_VALUE);
             startShape = null;
             linkShape = null;
-            delegate.repaint();
+
+            delegate.addDirtyRegion(linkFrame);
+            linkFrame = null;
+            delegate.repaintDirtyRegion();
             return;
         }
 
@@ -186,8 +193,12 @@ public class BaZEventCreateLink extends BaZAbstractEvent {
         if (startShape == null)
             return;
 
+        delegate.addDirtyRegion(linkFrame);
         this.updateLink(mousePosition);
-        delegate.repaint();
+
+        linkFrame = linkShape.getFrame();
+        delegate.addDirtyRegion(linkFrame);
+        delegate.repaintDirtyRegion();
     }
 
     @Override
@@ -54,7 +54,7 @@ public class BaZEventDragRootShape extends BaZAbstractEvent {
     @Override
     public void mouseReleased(MouseEvent e, Point mousePosition) {
         this.removeExclisiveValue(BaZEventManager.EXCLUSIVE_DRAG_VALUE);
-        delegate.repaint();
+        delegate.repaintDirtyRegion();
         dragging = false;
     }
 
@@ -62,7 +62,7 @@ public class BaZEventDragRootShape extends BaZAbstractEvent {
     public void mouseDragged(MouseEvent e, Point mousePosition) {
         if (dragging) {
             delegate.getRootShape().drag(BaZVector2D.createBazVector2D(mousePosition));
-            delegate.repaint();
+            delegate.repaintDirtyRegion();
         }
     }
 }
@@ -6,6 +6,9 @@
 package com.baz.event;
 
 import com.baz.canvas.BaZCanvas;
+import com.baz.graphics.base.BaZPaintCache;
+import com.baz.shape.BaZAbstractShape;
+import com.baz.shape.base.BaZRect;
 import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Graphics;
@@ -13,6 +16,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
+import java.util.Collections;
 
 /**
  * Manejador de acciones cuando el evento Drag está siendo disparado de un panel
@@ -59,6 +63,7 @@ public class BaZEventDragSelection extends BaZAbstractEvent {
             this.addExclusiveValue(BaZEventManager.EXCLUSIVE_DRAG_VALUE);
             selecting = true;
             delegate.selectingAllShapes(false);
+            delegate.startRetainedLayer(Collections.<BaZAbstractShape>emptyList());
             p1 = mousePosition;
         }
     }
@@ -66,10 +71,15 @@ public class BaZEventDragSelection extends BaZAbstractEvent {
     @Override
     public void mouseReleased(MouseEvent e, Point mousePosition) {
         this.removeExclisiveValue(BaZEventManager.EXCLUSIVE_DRAG_VALUE);
+        delegate.addDirtyRegion(this.getSelectionRect());
+
+        if (selecting)
+            delegate.stopRetainedLayer();
+
         selecting = false;
         p1 = null;
         p2 = null;
-        delegate.repaint();
+        delegate.repaintDirtyRegion();
     }
 
     @Override
@@ -77,9 +87,28 @@ public class BaZEventDragSelection extends BaZAbstractEvent {
         if (!selecting)
             return;
 
+        delegate.addDirtyRegion(this.getSelectionRect());
+
         p2 = mousePosition;
         delegate.selectingShapesInRect(p1.x, p1.y, p2.x - p1.x, p2.y - p1.y);
-        delegate.repaint();
+
+        delegate.addDirtyRegion(this.getSelectionRect());
+        delegate.repaintDirtyRegion();
+    }
+
+    /**
+     * Retorna el rectangulo de selección que se pinta sobre el lienzo, incluyendo
+     * su borde.
+     *
+     * @return Rectangulo de selección, o <code>null</code> si no se está
+     *         seleccionando.
+     */
+    private BaZRect getSelectionRect() {
+        if (p1 == null || p2 == null)
+            return null;
+
+        return new BaZRect(Math.min(p1.x, p2.x), Math.min(p1.y, p2.y),
+                Math.abs(p2.x - p1.x) + 1, Math.abs(p2.y - p1.y) + 1);
     }
 
     @Override
@@ -92,10 +121,10 @@ public class BaZEventDragSelection extends BaZAbstractEvent {
             int dx = Math.abs(p2.x - p1.x);
             int dy = Math.abs(p2.y - p1.y);
 
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f ));
+            g2d.setComposite(BaZPaintCache.getComposite(0.5f));
             g.setColor(Color.GRAY);
             g.fillRect(x, y, dx, dy);
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f ));
+            g2d.setComposite(AlphaComposite.SrcOver);
             g.setColor(Color.WHITE);
             g.drawRect(x, y, dx, dy);
         }
@@ -11,6 +11,7 @@ import com.baz.shape.BaZAbstractShape;
 import java.awt.Point;
 import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
+import java.util.Collections;
 
 /**
  * Manejador de acciones cuando una figura va a ser arrastrada por el lienzo
@@ -63,12 +64,14 @@ public class BaZEventDragShape extends BaZAbstractEvent {
             this.addExclusiveValue(BaZEventManager.EXCLUSIVE_DRAG_VALUE);
             dragging = true;
             p1 = mousePosition;
+            delegate.startRetainedLayer(delegate.getSelectedShapes());
 
         } else if (dragShape != null && dragShape.isDraggable()) {
             this.addExclusiveValue(BaZEventManager.EXCLUSIVE_DRAG_VALUE);
             dragShape.startingDrag();
             dragShapeOffset = BaZVector2D.createBazVector2D(mousePosition).
                     operation(dragShape.getPosition(), BaZVector2D.SUB);
+            delegate.startRetainedLayer(Collections.singletonList(dragShape));
             return;
         }
 
@@ -79,6 +82,9 @@ public class BaZEventDragShape extends BaZAbstractEvent {
     public void mouseReleased(MouseEvent e, Point mousePosition) {
         this.removeExclisiveValue(BaZEventManager.EXCLUSIVE_DRAG_VALUE);
 
+        if (dragShape != null || dragging)
+            delegate.stopRetainedLayer();
+
         dragShape = null;
         dragging = false;
     }
@@ -91,13 +97,13 @@ public class BaZEventDragShape extends BaZAbstractEvent {
 
             dragShape.moveToPosition(position);
 
-            delegate.repaint();
+            delegate.repaintDirtyRegion();
             
         } else if (dragging) {
             p2 = mousePosition;
             delegate.moveSelectedShapes(p2.getX() - p1.getX(), p2.getY() - p1.getY());
             p1 = p2;
-            delegate.repaint();
+            delegate.repaintDirtyRegion();
         }
     }
 
@@ -70,7 +70,7 @@ public class BaZEventEditLink extends BaZAbstractEvent {
 
         ((BaZShapeLink) selectedLink).setMousePosition(mousePosition);
 
-        delegate.repaint();
+        delegate.repaintDirtyRegion();
     }
 
     @Override
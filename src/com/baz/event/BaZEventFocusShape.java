@@ -43,7 +43,7 @@ public class BaZEventFocusShape extends BaZAbstractEvent {
         if (focusedShape != null) {
             focusedShape.setFocused(false);
             delegate.removeFocusedShape(focusedShape);
-            delegate.repaint();
+            delegate.repaintDirtyRegion();
         }
 
         focusedShape = shape;
@@ -51,7 +51,7 @@ public class BaZEventFocusShape extends BaZAbstractEvent {
         if (focusedShape != null) {
             focusedShape.setFocused(true);
             delegate.addFocusedShape(shape);
-            delegate.repaint();
+            delegate.repaintDirtyRegion();
         }
     }
 
@@ -9,8 +9,9 @@ import com.baz.shape.base.BaZRect;
 import com.baz.shape.base.BaZVector2D;
 import com.baz.shape.BaZAbstractShape;
 import java.awt.Color;
-import java.awt.FontMetrics;
+import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 
 /**
  * Ésta clase instancia un label para una figura en particular. Será implementada
@@ -24,6 +25,12 @@ import java.awt.Graphics;
  */
 public class BaZLabel {
 
+    /** Fuente por defecto de los labels. */
+    public static final Font DEFAULT_FONT = new Font("Dialog", Font.PLAIN, 12);
+
+    /** Memoria de medidas y glifos compartida por todos los textos pintados. */
+    private static final BaZTextCache TEXT_CACHE = new BaZTextCache();
+
     /** Posición del vector. */
     protected BaZVector2D position = null;
 
@@ -36,6 +43,9 @@ public class BaZLabel {
     /**Determina si el label es visible o no. */
     protected boolean visible = true;
 
+    /** Fuente con la que se pinta el texto. */
+    protected Font font = DEFAULT_FONT;
+
     /**
      * Constructor vacio.
      */
@@ -141,8 +151,45 @@ public class BaZLabel {
         if (position == null || text == null || !visible)
             return;
 
+        Font previous = g.getFont();
+
         g.setColor(color);
+        g.setFont(font);
         BaZLabel.paintCenteredString(text, position.getX(), position.getY(), g);
+        g.setFont(previous);
+    }
+
+    /**
+     * Retorna la fuente con la que se pinta el texto.
+     *
+     * @return Fuente del texto.
+     */
+    public Font getFont() {
+        return font;
+    }
+
+    /**
+     * Modifica la fuente con la que se pinta el texto.
+     *
+     * @param font
+     *        Fuente para el texto.
+     */
+    public void setFont(Font font) {
+        this.font = font;
+    }
+
+    /**
+     * Retorna el rectangulo que delimita el texto del label en su posición
+     * actual, medido con su fuente.
+     *
+     * @return Rectangulo que delimita el texto, o <code>null</code> si el
+     *         label no tiene posición o texto.
+     */
+    public BaZRect getFrame() {
+        if (position == null || text == null)
+            return null;
+
+        return BaZLabel.getFrame(text, position.getX(), position.getY(), font);
     }
 
     /**
@@ -159,10 +206,10 @@ public class BaZLabel {
      */
     public static void paintCenteredString(String text, double x, double y, Graphics g) {
         if (text != null) {
-            FontMetrics fm = g.getFontMetrics();
-            int _x = (int) (x - fm.stringWidth(text) * 0.5);
-            int _y = (int) (y + fm.getHeight() * 0.5);
-            g.drawString(text, _x, _y);
+            BaZTextCache.Entry entry = TEXT_CACHE.get(text, g);
+            int _x = (int) (x - entry.getWidth() * 0.5);
+            int _y = (int) (y + entry.getHeight() * 0.5);
+            ((Graphics2D) g).drawGlyphVector(entry.getGlyphs(), _x, _y);
         }
     }
 
@@ -183,10 +230,46 @@ public class BaZLabel {
     public static BaZRect getFrame(String s, double x, double y, Graphics g) {
 
         if (s != null && g != null) {
-            FontMetrics fm = g.getFontMetrics();
-            return new BaZRect(x - fm.stringWidth(s)*0.5, y - fm.getHeight()*0.5, fm.stringWidth(s), fm.getHeight());
+            BaZTextCache.Entry entry = TEXT_CACHE.get(s, g);
+            return new BaZRect(x - entry.getWidth()*0.5, y - entry.getHeight()*0.5, entry.getWidth(), entry.getHeight());
         }
 
         return new BaZRect(0, 0, 0, 0);
     }
+
+    /**
+     * Permite obtener el rectangulo que delimita la cadena de caracteres pintada
+     * con la fuente especificada. No depende de ningún <code>Graphics</code>,
+     * por lo que puede ser llamado antes de pintar el label y desde cualquier hilo.
+     *
+     * @param s
+     *        Cadena de caracteres que está contenida en el label.
+     * @param x
+     *        Coordenada X de la posición del label.
+     * @param y
+     *        Coordenada Y de la posición del label.
+     * @param font
+     *        Fuente con la que es pintado el label.
+     *
+     * @return Rectangulo que delimita la cadena de caracteres.
+     */
+    public static BaZRect getFrame(String s, double x, double y, Font font) {
+
+        if (s != null && font != null) {
+            BaZTextCache.Entry entry = TEXT_CACHE.get(s, font);
+            return new BaZRect(x - entry.getWidth()*0.5, y - entry.getHeight()*0.5, entry.getWidth(), entry.getHeight());
+        }
+
+        return new BaZRect(0, 0, 0, 0);
+    }
+
+    /**
+     * Retorna la memoria de medidas y glifos compartida por todos los textos
+     * pintados por medio de ésta clase.
+     *
+     * @return Memoria de textos.
+     */
+    public static BaZTextCache getTextCache() {
+        return TEXT_CACHE;
+    }
 }
\ No newline at end of file
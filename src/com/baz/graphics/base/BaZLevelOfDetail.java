@@ -0,0 +1,176 @@
+/*
+ * BaZLevelOfDetail.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.graphics.base;
+
+/**
+ * Política de nivel de detalle para el pintado de las figuras. De acuerdo al
+ * nivel de zoom del lienzo determina qué elementos de las figuras se pintan,
+ * pues a zoom bajo los textos, las flechas y los resaltados ocupan menos de un
+ * pixel y su costo no se ve reflejado en la imagen.
+ * Cada elemento se pinta solo si el zoom es mayor o igual a su umbral.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public class BaZLevelOfDetail {
+
+    /** Umbral de zoom por defecto para pintar los textos. */
+    public static final float DEFAULT_TEXT_ZOOM = 0.7f;
+
+    /** Umbral de zoom por defecto para pintar los enlaces como curvas con flechas. */
+    public static final float DEFAULT_CURVED_LINK_ZOOM = 0.6f;
+
+    /** Umbral de zoom por defecto para pintar la forma completa de las figuras. */
+    public static final float DEFAULT_SHAPE_ZOOM = 0.6f;
+
+    /** Umbral de zoom por defecto para pintar el resaltado de las figuras. */
+    public static final float DEFAULT_HIGHLIGHT_ZOOM = 0f;
+
+    /** Umbral de zoom para pintar los textos. */
+    protected float textZoom = DEFAULT_TEXT_ZOOM;
+
+    /** Umbral de zoom para pintar los enlaces como curvas con flechas. */
+    protected float curvedLinkZoom = DEFAULT_CURVED_LINK_ZOOM;
+
+    /** Umbral de zoom para pintar la forma completa de las figuras. */
+    protected float shapeZoom = DEFAULT_SHAPE_ZOOM;
+
+    /** Umbral de zoom para pintar el resaltado de las figuras. */
+    protected float highlightZoom = DEFAULT_HIGHLIGHT_ZOOM;
+
+    /**
+     * Constructor por defecto, con los umbrales por defecto.
+     */
+    public BaZLevelOfDetail() {}
+
+    /**
+     * Determina si los textos se pintan con el zoom especificado.
+     *
+     * @param zoom
+     *        Nivel de zoom del lienzo.
+     *
+     * @return <code>true</code> si los textos deben ser pintados.
+     */
+    public boolean isTextVisible(float zoom) {
+        return zoom >= textZoom;
+    }
+
+    /**
+     * Determina si los enlaces se pintan como curvas con sus flechas con el
+     * zoom especificado. De lo contrario se pintan como segmentos rectos.
+     *
+     * @param zoom
+     *        Nivel de zoom del lienzo.
+     *
+     * @return <code>true</code> si los enlaces deben ser pintados como curvas.
+     */
+    public boolean isLinkCurved(float zoom) {
+        return zoom >= curvedLinkZoom;
+    }
+
+    /**
+     * Determina si las figuras se pintan con su forma completa con el zoom
+     * especificado. De lo contrario se pintan como rectangulos rellenos.
+     *
+     * @param zoom
+     *        Nivel de zoom del lienzo.
+     *
+     * @return <code>true</code> si las figuras deben ser pintadas completas.
+     */
+    public boolean isShapeDetailed(float zoom) {
+        return zoom >= shapeZoom;
+    }
+
+    /**
+     * Determina si el resaltado de las figuras seleccionadas o enfocadas se
+     * pinta con el zoom especificado.
+     *
+     * @param zoom
+     *        Nivel de zoom del lienzo.
+     *
+     * @return <code>true</code> si el resaltado debe ser pintado.
+     */
+    public boolean isHighlightVisible(float zoom) {
+        return zoom >= highlightZoom;
+    }
+
+    /**
+     * Retorna el umbral de zoom para pintar los textos.
+     *
+     * @return Umbral de zoom para los textos.
+     */
+    public float getTextZoom() {
+        return textZoom;
+    }
+
+    /**
+     * Modifica el umbral de zoom para pintar los textos.
+     *
+     * @param textZoom
+     *        Umbral de zoom para los textos.
+     */
+    public void setTextZoom(float textZoom) {
+        this.textZoom = textZoom;
+    }
+
+    /**
+     * Retorna el umbral de zoom para pintar los enlaces como curvas.
+     *
+     * @return Umbral de zoom para los enlaces.
+     */
+    public float getCurvedLinkZoom() {
+        return curvedLinkZoom;
+    }
+
+    /**
+     * Modifica el umbral de zoom para pintar los enlaces como curvas.
+     *
+     * @param curvedLinkZoom
+     *        Umbral de zoom para los enlaces.
+     */
+    public void setCurvedLinkZoom(float curvedLinkZoom) {
+        this.curvedLinkZoom = curvedLinkZoom;
+    }
+
+    /**
+     * Retorna el umbral de zoom para pintar la forma completa de las figuras.
+     *
+     * @return Umbral de zoom para las figuras.
+     */
+    public float getShapeZoom() {
+        return shapeZoom;
+    }
+
+    /**
+     * Modifica el umbral de zoom para pintar la forma completa de las figuras.
+     *
+     * @param shapeZoom
+     *        Umbral de zoom para las figuras.
+     */
+    public void setShapeZoom(float shapeZoom) {
+        this.shapeZoom = shapeZoom;
+    }
+
+    /**
+     * Retorna el umbral de zoom para pintar el resaltado de las figuras.
+     *
+     * @return Umbral de zoom para el resaltado.
+     */
+    public float getHighlightZoom() {
+        return highlightZoom;
+    }
+
+    /**
+     * Modifica el umbral de zoom para pintar el resaltado de las figuras.
+     *
+     * @param highlightZoom
+     *        Umbral de zoom para el resaltado.
+     */
+    public void setHighlightZoom(float highlightZoom) {
+        this.highlightZoom = highlightZoom;
+    }
+}
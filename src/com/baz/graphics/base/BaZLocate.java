@@ -5,9 +5,22 @@
  */
 package com.baz.graphics.base;
 
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Ésta clase permite obtener los String localizados de la aplicación. Las
+ * cadenas de cada archivo de propiedades se cargan una sola vez por idioma en
+ * una tabla inmutable, de manera que cada búsqueda es una consulta a la tabla
+ * sin resolver de nuevo el <code>ResourceBundle</code>. Las cadenas del archivo
+ * global se cargan al cargar la clase.
  *
  * @author JpBaena
  * @version 0.1
@@ -15,6 +28,34 @@ import java.util.ResourceBundle;
  */
 public class BaZLocate {
 
+    /** Ruta del archivo de propiedades global. */
+    public static final String GLOBAL_BUNDLE = "com/baz/properties/Strings";
+
+    /** Tablas de cadenas del idioma actual. Se reemplaza por completo al cambiar el idioma. */
+    private static volatile Tables tables = new Tables(Locale.getDefault());
+
+    /**
+     * Retorna el idioma de las cadenas retornadas.
+     *
+     * @return Idioma actual.
+     */
+    public static Locale getLocale() {
+        return tables.locale;
+    }
+
+    /**
+     * Cambia el idioma de las cadenas retornadas. Las cadenas del archivo
+     * global del nuevo idioma se cargan antes de reemplazar las actuales, por
+     * lo que las búsquedas concurrentes obtienen siempre las cadenas de un
+     * solo idioma.
+     *
+     * @param locale
+     *        Nuevo idioma.
+     */
+    public static void setLocale(Locale locale) {
+        tables = new Tables(locale);
+    }
+
     /**
      * Retorna el String corresponiente a la llave especificada, dentro del
      * archivo de propiedades que se encuentra en la ruta dada.
@@ -25,9 +66,12 @@ public class BaZLocate {
      *        Llave del String dentro del archivo de propiedades
      *
      * @return String asociado a la llave especificada.
+     *
+     * @throws MissingResourceException
+     *         Si el archivo de propiedades o la llave no existen.
      */
     public static String getString(String path, String key) {
-        return ResourceBundle.getBundle(path).getString(key);
+        return tables.getString(path, key);
     }
 
     /**
@@ -36,14 +80,67 @@ public class BaZLocate {
      * Utilize éste método para buscar una llave dentro del archivo de propiedades
      * global, éste es, el que tiene todos los String comunes a cualquier aplicación.
      *
-     * @param path
-     *        Ruta donde se encuentra el archivo de propiedades
      * @param key
      *        Llave del String dentro del archivo de propiedades
      *
      * @return String asociado a la llave especificada.
+     *
+     * @throws MissingResourceException
+     *         Si la llave no existe.
      */
     public static String getString(String key) {
-        return ResourceBundle.getBundle("com/baz/properties/Strings").getString(key);
+        return tables.getString(GLOBAL_BUNDLE, key);
+    }
+
+    /**
+     * Tablas inmutables de cadenas de un idioma, una por archivo de propiedades.
+     */
+    private static final class Tables {
+        final Locale locale;
+        final ConcurrentMap<String, Map<String, String>> bundles = new ConcurrentHashMap<String, Map<String, String>>();
+
+        Tables(Locale locale) {
+            this.locale = locale;
+
+            try {
+                this.getTable(GLOBAL_BUNDLE);
+            } catch (MissingResourceException e) {
+                // Se reporta en la primera búsqueda, como lo hace ResourceBundle.
+            }
+        }
+
+        String getString(String path, String key) {
+            String value = this.getTable(path).get(key);
+
+            if (value == null)
+                throw new MissingResourceException("Can't find resource for bundle " + path + ", key " + key, path, key);
+
+            return value;
+        }
+
+        Map<String, String> getTable(String path) {
+            Map<String, String> table = bundles.get(path);
+
+            if (table == null) {
+                ResourceBundle bundle = ResourceBundle.getBundle(path, locale);
+                Map<String, String> strings = new HashMap<String, String>();
+
+                for (Enumeration<String> keys = bundle.getKeys(); keys.hasMoreElements();) {
+                    String key = keys.nextElement();
+                    Object value = bundle.getObject(key);
+
+                    if (value instanceof String)
+                        strings.put(key, (String) value);
+                }
+
+                table = Collections.unmodifiableMap(strings);
+                Map<String, String> previous = bundles.putIfAbsent(path, table);
+
+                if (previous != null)
+                    table = previous;
+            }
+
+            return table;
+        }
     }
 }
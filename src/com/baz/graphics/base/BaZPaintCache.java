@@ -0,0 +1,105 @@
+/*
+ * BaZPaintCache.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.graphics.base;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Memoria compartida de los trazos y composiciones utilizados al pintar las
+ * figuras. Los objetos <code>BasicStroke</code> y <code>AlphaComposite</code>
+ * son inmutables, por lo que una misma instancia puede ser usada por todas las
+ * figuras y por todos los hilos, evitando crear nuevos objetos en cada pintado.
+ * Los valores de alpha se cuantizan a los 256 niveles que pueden representarse
+ * en el color de un pixel.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public final class BaZPaintCache {
+
+    /** Número de niveles en que se cuantizan los valores de alpha. */
+    public static final int ALPHA_LEVELS = 256;
+
+    /** Grueso máximo, exclusivo, de los trazos de grueso entero guardados en arreglo. */
+    private static final int INT_STROKES = 32;
+
+    /** Composiciones <code>SRC_OVER</code> de acuerdo a su nivel de alpha. */
+    private static final AlphaComposite[] COMPOSITES = new AlphaComposite[ALPHA_LEVELS];
+
+    /** Trazos de grueso entero de acuerdo a su grueso. */
+    private static final BasicStroke[] STROKES = new BasicStroke[INT_STROKES];
+
+    /** Trazos de grueso no entero o mayor a los guardados en arreglo. */
+    private static final ConcurrentMap<Float, BasicStroke> OTHER_STROKES = new ConcurrentHashMap<Float, BasicStroke>();
+
+    static {
+        for (int i = 0; i < ALPHA_LEVELS - 1; i++)
+            COMPOSITES[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, i / (float) (ALPHA_LEVELS - 1));
+
+        COMPOSITES[ALPHA_LEVELS - 1] = AlphaComposite.SrcOver;
+
+        for (int i = 0; i < INT_STROKES; i++)
+            STROKES[i] = new BasicStroke(i);
+    }
+
+    /**
+     * No se permite crear instancias de ésta clase.
+     */
+    private BaZPaintCache() {}
+
+    /**
+     * Retorna la composición <code>SRC_OVER</code> con el alpha especificado,
+     * cuantizado al nivel más cercano.
+     *
+     * @param alpha
+     *        Valor del alpha entre 0 y 1.
+     *
+     * @return Composición compartida con el alpha especificado.
+     */
+    public static AlphaComposite getComposite(float alpha) {
+        int level = Math.round(alpha * (ALPHA_LEVELS - 1));
+
+        if (level < 0)
+            level = 0;
+        else if (level > ALPHA_LEVELS - 1)
+            level = ALPHA_LEVELS - 1;
+
+        return COMPOSITES[level];
+    }
+
+    /**
+     * Retorna el trazo sólido con el grueso especificado y los extremos y
+     * uniones por defecto de <code>BasicStroke</code>.
+     *
+     * @param width
+     *        Grueso del trazo.
+     *
+     * @return Trazo compartido con el grueso especificado.
+     */
+    public static BasicStroke getStroke(float width) {
+        int index = (int) width;
+
+        if (index == width && index >= 0 && index < INT_STROKES)
+            return STROKES[index];
+
+        Float key = Float.valueOf(width);
+        BasicStroke stroke = OTHER_STROKES.get(key);
+
+        if (stroke == null) {
+            stroke = new BasicStroke(width);
+            BasicStroke previous = OTHER_STROKES.putIfAbsent(key, stroke);
+
+            if (previous != null)
+                stroke = previous;
+        }
+
+        return stroke;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * BaZTextCache.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.graphics.base;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memoria de las medidas y los glifos de los textos pintados. Cada texto se
+ * identifica por la cadena, la fuente y el contexto de pintado de la fuente,
+ * de manera que al pintar de nuevo el mismo texto no es necesario medirlo ni
+ * convertirlo en glifos.
+ * El contexto de pintado se toma sin la transformación del <code>Graphics</code>,
+ * por lo que los textos se miden en coordenadas del lienzo y sus glifos son
+ * escalados al pintarlos; así, cambiar el zoom no descarta los textos en memoria.
+ * Cuando se supera el número máximo de textos se descartan los menos usados
+ * recientemente.
+ *
+ * Los textos también pueden medirse sin un <code>Graphics</code>, con el
+ * contexto de fuentes compartido <code>DEFAULT_FRC</code>, lo que permite
+ * calcular los límites de los textos antes de pintarlos o desde otros hilos.
+ *
+ * Ésta clase es sincronizada, pues los textos pueden medirse desde hilos
+ * diferentes al hilo de pintado.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public class BaZTextCache {
+
+    /** Número máximo de textos por defecto. */
+    public static final int DEFAULT_MAX_ENTRIES = 2048;
+
+    /** <code>Graphics</code> sin zoom y con antialias, como el del lienzo, con
+     * el que se miden los textos cuando no se especifica un <code>Graphics</code>. */
+    private static final Graphics2D MEASURE_GRAPHICS;
+
+    /** Contexto de fuentes compartido con el que se miden los textos cuando no
+     * se especifica un <code>Graphics</code>. */
+    public static final FontRenderContext DEFAULT_FRC;
+
+    static {
+        MEASURE_GRAPHICS = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        MEASURE_GRAPHICS.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        DEFAULT_FRC = MEASURE_GRAPHICS.getFontRenderContext();
+    }
+
+    /** Número máximo de textos que se mantienen en memoria. */
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    /** Textos en orden de uso, del menos al más usado recientemente. */
+    private Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BaZTextCache.Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /** Llave reutilizada para las búsquedas, evita crear objetos cuando el texto se encuentra. */
+    private final Key lookup = new Key(null, null, null);
+
+    /** Último contexto transformado recibido, y su equivalente sin transformación. */
+    private FontRenderContext lastTransformed = null;
+    private FontRenderContext lastUntransformed = null;
+
+    /**
+     * Retorna las medidas y los glifos del texto especificado pintado con la
+     * fuente y el contexto actuales del <code>Graphics</code> especificado.
+     * El texto se mide sin la transformación del <code>Graphics</code>.
+     *
+     * @param text
+     *        Texto a medir.
+     * @param g
+     *        <code>Graphics</code> donde será pintado el texto.
+     *
+     * @return Medidas y glifos del texto.
+     */
+    public synchronized Entry get(String text, Graphics g) {
+        return this.get(text, g.getFont(), this.untransformed(((Graphics2D) g).getFontRenderContext()));
+    }
+
+    /**
+     * Retorna las medidas y los glifos del texto especificado pintado con la
+     * fuente especificada y el contexto de fuentes compartido <code>DEFAULT_FRC</code>.
+     * No depende de ningún <code>Graphics</code>, por lo que puede ser llamado
+     * antes de pintar el texto y desde cualquier hilo.
+     *
+     * @param text
+     *        Texto a medir.
+     * @param font
+     *        Fuente con la que será pintado el texto.
+     *
+     * @return Medidas y glifos del texto.
+     */
+    public synchronized Entry get(String text, Font font) {
+        return this.get(text, font, DEFAULT_FRC);
+    }
+
+    /**
+     * Busca el texto en la memoria, midiéndolo con el contexto sin transformación
+     * especificado si no se encuentra. Debe ser llamado sosteniendo el cerrojo.
+     */
+    private Entry get(String text, Font font, FontRenderContext frc) {
+        lookup.set(text, font, frc);
+        Entry entry = entries.get(lookup);
+        lookup.set(null, null, null);
+
+        if (entry == null) {
+            FontMetrics fm;
+
+            synchronized(MEASURE_GRAPHICS) {
+                MEASURE_GRAPHICS.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, frc.getAntiAliasingHint());
+                MEASURE_GRAPHICS.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, frc.getFractionalMetricsHint());
+                fm = MEASURE_GRAPHICS.getFontMetrics(font);
+            }
+
+            entry = new Entry(fm.stringWidth(text), fm.getHeight(), font.createGlyphVector(frc, text));
+            entries.put(new Key(text, font, frc), entry);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Retorna el contexto de fuentes especificado sin su transformación,
+     * conservando el antialias y las métricas fraccionales. Debe ser llamado
+     * sosteniendo el cerrojo.
+     */
+    private FontRenderContext untransformed(FontRenderContext frc) {
+        if (!frc.isTransformed())
+            return frc;
+
+        if (!frc.equals(lastTransformed)) {
+            lastTransformed = frc;
+            lastUntransformed = new FontRenderContext(null, frc.getAntiAliasingHint(), frc.getFractionalMetricsHint());
+        }
+
+        return lastUntransformed;
+    }
+
+    /**
+     * Descarta todos los textos.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Retorna el número de textos en memoria.
+     *
+     * @return Número de textos.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Retorna el número máximo de textos que se mantienen en memoria.
+     *
+     * @return Número máximo de textos.
+     */
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Modifica el número máximo de textos que se mantienen en memoria.
+     *
+     * @param maxEntries
+     *        Número máximo de textos.
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+
+        while (entries.size() > this.maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Medidas y glifos de un texto.
+     */
+    public static final class Entry {
+        private final int width;
+        private final int height;
+        private final GlyphVector glyphs;
+
+        Entry(int width, int height, GlyphVector glyphs) {
+            this.width = width;
+            this.height = height;
+            this.glyphs = glyphs;
+        }
+
+        /**
+         * Retorna el ancho del texto, igual a <code>FontMetrics.stringWidth</code>.
+         *
+         * @return Ancho del texto.
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * Retorna el alto de la línea del texto, igual a <code>FontMetrics.getHeight</code>.
+         *
+         * @return Alto del texto.
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Retorna los glifos del texto, listos para ser pintados con
+         * <code>Graphics2D.drawGlyphVector</code>.
+         *
+         * @return Glifos del texto.
+         */
+        public GlyphVector getGlyphs() {
+            return glyphs;
+        }
+    }
+
+    /**
+     * Identificador de un texto.
+     */
+    private static final class Key {
+        String text;
+        Font font;
+        FontRenderContext frc;
+        int hash;
+
+        Key(String text, Font font, FontRenderContext frc) {
+            this.set(text, font, frc);
+        }
+
+        void set(String text, Font font, FontRenderContext frc) {
+            this.text = text;
+            this.font = font;
+            this.frc = frc;
+            this.hash = text == null ? 0 : (text.hashCode() * 31 + font.hashCode()) * 31 + frc.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Key))
+                return false;
+
+            Key key = (Key) object;
+            return key.hash == hash && key.text.equals(text) && key.font.equals(font) && key.frc.equals(frc);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
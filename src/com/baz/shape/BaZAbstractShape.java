@@ -6,19 +6,27 @@
 package com.baz.shape;
 
 import com.baz.shape.base.BaZAnchor2D;
+import com.baz.shape.base.BaZAnchorTable;
+import com.baz.shape.base.BaZPositionStore;
+import com.baz.shape.base.BaZQuadTree;
 import com.baz.shape.base.BaZRect;
 import com.baz.shape.base.BaZVector2D;
 import com.baz.canvas.BaZCanvas;
+import com.baz.graphics.base.BaZPaintCache;
 import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * Esta clase es la abstracción de una figura dibujable sobre un lienzo.
@@ -49,21 +57,57 @@ public class BaZAbstractShape {
     /** Llave para tipo de ancla a utilizar para enlace. */
     public static final String ANCHOR_RIGHT = "RIGHT";
 
+    /** Casilla del ancla <code>ANCHOR_CENTER</code> en la tabla de anclas. */
+    public static final int ANCHOR_SLOT_CENTER = 0;
+
+    /** Casilla del ancla <code>ANCHOR_TOP</code> en la tabla de anclas. */
+    public static final int ANCHOR_SLOT_TOP = 1;
+
+    /** Casilla del ancla <code>ANCHOR_BOTTOM</code> en la tabla de anclas. */
+    public static final int ANCHOR_SLOT_BOTTOM = 2;
+
+    /** Casilla del ancla <code>ANCHOR_LEFT</code> en la tabla de anclas. */
+    public static final int ANCHOR_SLOT_LEFT = 3;
+
+    /** Casilla del ancla <code>ANCHOR_RIGHT</code> en la tabla de anclas. */
+    public static final int ANCHOR_SLOT_RIGHT = 4;
+
+    /** Llaves de las anclas estándar en el orden de sus casillas. */
+    private static final String[] STANDARD_ANCHORS = {
+        ANCHOR_CENTER, ANCHOR_TOP, ANCHOR_BOTTOM, ANCHOR_LEFT, ANCHOR_RIGHT
+    };
+
     /** Lienzo padre donde será pintada la figura. */
     public transient BaZCanvas canvas = null;
 
-    /** Lista de figuras que contiene esta figura. */
+    /** Arreglo vacio compartido por las figuras que no contienen otras figuras. */
+    private static final BaZAbstractShape[] NO_SHAPES = new BaZAbstractShape[0];
+
+    /** Lista de figuras que contiene esta figura. Solo es modificada sosteniendo
+     * el cerrojo, y cada modificación publica una nueva copia en <code>shapesSnapshot</code>. */
     protected List<BaZAbstractShape> shapes = new ArrayList<BaZAbstractShape>();
 
+    /** Copia inmutable de la lista de figuras embebidas. Es reemplazada completa
+     * en cada modificación de la lista, por lo que el pintado y las búsquedas la
+     * recorren sin sostener el cerrojo y sin bloquear a quien modifica la lista. */
+    private volatile BaZAbstractShape[] shapesSnapshot = NO_SHAPES;
+
     /** Posición de la figura dentro del lienzo. */
     protected BaZVector2D position = new BaZVector2D();
 
+    /** Almacén de posiciones del lienzo donde se guarda la posición de la
+     * figura, o <code>null</code> si la posición se guarda en <code>position</code>. */
+    protected transient BaZPositionStore positionStore = null;
+
+    /** Casilla de la figura dentro del almacén de posiciones. */
+    protected transient int positionSlot = -1;
+
     /** Posición anterior a la posición actual cuando la figura esta siendo
      * desplazada por todo el lienzo padre.*/
     protected transient BaZVector2D oldPosition = null;
 
     /** Conjunto de anclas asociadas a la figura. */
-    protected transient Map anchors = new HashMap();
+    protected transient BaZAnchorTable anchors = new BaZAnchorTable(STANDARD_ANCHORS);
 
     /** Texto que contendrá la figura en el centro. */
     protected String text = null;
@@ -92,14 +136,65 @@ public class BaZAbstractShape {
     /** Bandera que determina si la figura es o no arrastrable. */
     protected boolean draggable = false;
 
-    /* --- Trazos Básicos para el borde la figura --- */
-    protected transient BasicStroke borderStroke = new BasicStroke(borderSize);
-    protected transient final BasicStroke STROKE_NORMAL = new BasicStroke(1);
-    protected transient final BasicStroke STROKE_BOLD = new BasicStroke(3);
+    /* --- Trazos Básicos para el borde la figura, compartidos por todas las figuras --- */
+    protected transient BasicStroke borderStroke = BaZPaintCache.getStroke(borderSize);
+    protected static final BasicStroke STROKE_NORMAL = BaZPaintCache.getStroke(1);
+    protected static final BasicStroke STROKE_BOLD = BaZPaintCache.getStroke(3);
 
     /** Objeto que servirá como cerrojo para sincronizar el acceso a algunos métodos de ésta clase*/
     protected final Object lock = new Object();
 
+    /** Figura que contiene a ésta figura dentro de su lista de figuras embebidas. */
+    protected transient BaZAbstractShape parent = null;
+
+    /** Orden de profundidad de la figura dentro de su figura padre. Los valores
+     * menores corresponden a las figuras que se pintan al frente. */
+    protected transient long zOrder = 0;
+
+    /** Índice espacial de las figuras embebidas. Es <code>null</code> si la figura no está indexada. */
+    protected transient BaZQuadTree<BaZAbstractShape> index = null;
+
+    /** Figuras embebidas cuyos límites cambiaron y deben ser actualizados en el índice. */
+    protected transient Set<BaZAbstractShape> staleShapes = null;
+
+    /** Figuras embebidas que no pueden ser indexadas porque sus límites no son estables. */
+    protected transient Set<BaZAbstractShape> unindexedShapes = null;
+
+    /** Límites de la figura calculados en el último llamado a <code>bounds()</code>. */
+    protected transient volatile BaZRect cachedBounds = null;
+
+    /** Determina si los límites guardados de la figura deben ser recalculados. */
+    protected transient volatile boolean boundsDirty = true;
+
+    /** Determina si los límites de la figura o de alguna figura embebida son volátiles. */
+    protected transient volatile boolean volatileBounds = false;
+
+    /** Versión de la geometría con la que fueron calculados los límites guardados. */
+    protected transient long boundsVersion = -1;
+
+    /** Versión de la geometría de la figura, se incrementa cada vez que es invalidada. */
+    protected transient volatile long geometryVersion = 0;
+
+    /** Versión de la geometría con la que fueron calculadas las anclas. */
+    protected transient long anchorsVersion = -1;
+
+    /** Enlaces que parten de ésta figura. */
+    protected transient List<BaZShapeLink> outgoingLinks = null;
+
+    /** Enlaces que llegan a ésta figura. */
+    protected transient List<BaZShapeLink> incomingLinks = null;
+
+    /* --- Orden de profundidad de la primera y última figura embebida --- */
+    private transient long firstZOrder = 0;
+    private transient long lastZOrder = 0;
+
+    /** Compara dos figuras de acuerdo a su orden de profundidad. */
+    protected static final Comparator<BaZAbstractShape> Z_ORDER = new Comparator<BaZAbstractShape>() {
+        public int compare(BaZAbstractShape s1, BaZAbstractShape s2) {
+            return s1.zOrder < s2.zOrder ? -1 : (s1.zOrder == s2.zOrder ? 0 : 1);
+        }
+    };
+
     /**
      * Configura el canvas de clase referenciando al canvas especificado.
      * Este canvas será el padre del objeto, así como el padre de todos los
@@ -111,12 +206,12 @@ public class BaZAbstractShape {
      */
     public void setCanvas(BaZCanvas canvas) {
         this.canvas = canvas;
-        synchronized(lock) {
-            for (int i = 0; i < shapes.size(); i++) {
-                BaZAbstractShape shape = (BaZAbstractShape) shapes.get(i);
-                shape.setCanvas(canvas);
-            }
-        }
+        this.setPositionStore(canvas != null ? canvas.getPositionStore() : null);
+
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        for (int i = 0; i < children.length; i++)
+            children[i].setCanvas(canvas);
     }
 
     /**
@@ -146,7 +241,14 @@ public class BaZAbstractShape {
         shape.setCanvas(canvas);
         synchronized(lock) {
             this.shapes.add(0, shape);
+            this.publishShapes();
+            shape.zOrder = --firstZOrder;
+            this.attachShape(shape);
         }
+        if (canvas != null)
+            canvas.shapeModified(shape, null);
+
+        this.invalidateGeometry();
     }
 
     /**
@@ -162,9 +264,25 @@ public class BaZAbstractShape {
     public void addShape(int index, BaZAbstractShape shape) {
         shape.setCanvas(canvas);
         synchronized(lock) {
-            if (!this.shapes.contains(shape))
-                this.shapes.add(index, shape);
+            if (this.shapes.contains(shape))
+                return;
+
+            this.shapes.add(index, shape);
+            this.publishShapes();
+
+            if (index == 0)
+                shape.zOrder = --firstZOrder;
+            else if (index == shapes.size() - 1)
+                shape.zOrder = ++lastZOrder;
+            else
+                this.renumberShapes();
+
+            this.attachShape(shape);
         }
+        if (canvas != null)
+            canvas.shapeModified(shape, null);
+
+        this.invalidateGeometry();
     }
 
     /**
@@ -180,9 +298,18 @@ public class BaZAbstractShape {
     public void addShapeAtLast(BaZAbstractShape shape) {
         shape.setCanvas(canvas);
         synchronized(lock) {
-            if (!this.shapes.contains(shape))
-                this.shapes.add(shape);
+            if (this.shapes.contains(shape))
+                return;
+
+            this.shapes.add(shape);
+            this.publishShapes();
+            shape.zOrder = ++lastZOrder;
+            this.attachShape(shape);
         }
+        if (canvas != null)
+            canvas.shapeModified(shape, null);
+
+        this.invalidateGeometry();
     }
 
     /**
@@ -197,9 +324,527 @@ public class BaZAbstractShape {
      *         contrario retorna <code>false</code>.
      */    
     public boolean removeShape(BaZAbstractShape shape) {
+        boolean removed;
+        BaZRect rect = shape.bounds();
+
+        synchronized(lock) {
+            removed = this.shapes.remove(shape);
+
+            if (removed) {
+                this.publishShapes();
+                this.detachShape(shape);
+            }
+        }
+
+        if (removed) {
+            if (canvas != null)
+                canvas.shapeModified(shape, rect);
+
+            this.invalidateGeometry();
+        }
+
+        return removed;
+    }
+
+    /**
+     * Asocia la figura especificada a ésta figura como su padre y la marca para
+     * ser añadida al índice espacial si éste existe. Debe ser llamado
+     * sosteniendo el cerrojo.
+     *
+     * @param shape
+     *        Figura embebida recién añadida.
+     */
+    private void attachShape(BaZAbstractShape shape) {
+        shape.setParent(this);
+
+        if (index != null)
+            staleShapes.add(shape);
+    }
+
+    /**
+     * Elimina la asociación entre la figura especificada y ésta figura, y la
+     * remueve del índice espacial si éste existe. Debe ser llamado sosteniendo
+     * el cerrojo.
+     *
+     * @param shape
+     *        Figura embebida recién removida.
+     */
+    private void detachShape(BaZAbstractShape shape) {
+        if (shape.parent == this)
+            shape.setParent(null);
+
+        shape.releasePositionStore();
+
+        if (index != null) {
+            index.remove(shape);
+            staleShapes.remove(shape);
+            unindexedShapes.remove(shape);
+        }
+    }
+
+    /**
+     * Traslada la posición de la figura al almacén de posiciones especificado.
+     * Si la figura ya tenía una casilla en otro almacén, su posición se copia
+     * de vuelta a <code>position</code> y la casilla es liberada.
+     *
+     * @param store
+     *        Almacén de posiciones, o <code>null</code> para guardar la
+     *        posición únicamente en <code>position</code>.
+     */
+    protected void setPositionStore(BaZPositionStore store) {
+        if (store == positionStore)
+            return;
+
+        if (positionStore != null) {
+            position.set(positionStore.getX(positionSlot), positionStore.getY(positionSlot));
+            positionStore.release(positionSlot);
+            positionSlot = -1;
+        }
+
+        positionStore = store;
+
+        if (store != null)
+            positionSlot = store.allocate(position.getX(), position.getY());
+    }
+
+    /**
+     * Libera las casillas del almacén de posiciones de ésta figura y de sus
+     * figuras embebidas. Es llamado cuando la figura es removida del lienzo.
+     */
+    private void releasePositionStore() {
+        this.setPositionStore(null);
+
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        for (int i = 0; i < children.length; i++)
+            children[i].releasePositionStore();
+    }
+
+    /**
+     * Publica una nueva copia inmutable de la lista de figuras embebidas. Debe
+     * ser llamado sosteniendo el cerrojo, después de cada modificación de la lista.
+     */
+    private void publishShapes() {
+        shapesSnapshot = shapes.isEmpty() ? NO_SHAPES : shapes.toArray(new BaZAbstractShape[shapes.size()]);
+    }
+
+    /**
+     * Retorna la copia inmutable más reciente de la lista de figuras embebidas.
+     * Puede ser recorrida sin sostener el cerrojo; las modificaciones
+     * posteriores de la lista no la afectan. El arreglo retornado es compartido
+     * y no debe ser modificado.
+     *
+     * @return Figuras embebidas en el orden de la lista.
+     */
+    protected BaZAbstractShape[] getShapesSnapshot() {
+        return shapesSnapshot;
+    }
+
+    /**
+     * Retorna la casilla de la figura dentro del almacén de posiciones.
+     *
+     * @return Índice de la casilla, o <code>-1</code> si la figura no tiene
+     *         almacén de posiciones.
+     */
+    public int getPositionSlot() {
+        return positionSlot;
+    }
+
+    /**
+     * Añade a la lista especificada ésta figura y todas sus figuras embebidas,
+     * en el orden en que son recorridas por <code>move</code>: primero las
+     * figuras embebidas y al final la figura que las contiene.
+     *
+     * @param result
+     *        Lista donde serán añadidas las figuras.
+     */
+    public void collectSubtree(List<BaZAbstractShape> result) {
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        for (int i = 0; i < children.length; i++)
+            children[i].collectSubtree(result);
+
+        result.add(this);
+    }
+
+    /**
+     * Desplaza en un solo recorrido del almacén de posiciones las figuras
+     * especificadas, y luego las invalida. Las figuras que no tienen casilla
+     * en el almacén son desplazadas por medio de su vector de posición.
+     *
+     * @param store
+     *        Almacén de posiciones de las figuras.
+     * @param shapes
+     *        Figuras a desplazar, tal como las retorna <code>collectSubtree</code>.
+     * @param dx
+     *        Diferencial en X.
+     * @param dy
+     *        Diferencial en Y.
+     */
+    public static void moveAll(BaZPositionStore store, List<BaZAbstractShape> shapes, double dx, double dy) {
+        synchronized(store) {
+            int[] slots = store.getSlotBuffer(shapes.size());
+            int count = 0;
+
+            for (int i = 0; i < shapes.size(); i++) {
+                BaZAbstractShape shape = shapes.get(i);
+
+                if (shape.positionStore == store && shape.positionSlot >= 0)
+                    slots[count++] = shape.positionSlot;
+                else
+                    shape.shiftPosition(dx, dy);
+            }
+
+            store.shift(slots, count, dx, dy);
+        }
+
+        for (int i = 0; i < shapes.size(); i++)
+            shapes.get(i).invalidate();
+    }
+
+    /**
+     * Desplaza la posición de la figura sin invalidarla ni mover sus figuras
+     * embebidas.
+     */
+    private void shiftPosition(double dx, double dy) {
+        if (positionStore != null)
+            positionStore.shift(positionSlot, dx, dy);
+        else
+            position.shift(dx, dy);
+    }
+
+    /**
+     * Modifica la figura padre de ésta figura. Es llamado cuando la figura es
+     * añadida o removida de la lista de figuras embebidas de otra figura.
+     *
+     * @param parent
+     *        Figura que contiene a ésta figura, o <code>null</code> si la
+     *        figura fue removida.
+     */
+    protected void setParent(BaZAbstractShape parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Retorna la figura que contiene a ésta figura.
+     *
+     * @return Figura padre, o <code>null</code> si la figura no ha sido añadida
+     *         a ninguna otra figura.
+     */
+    public BaZAbstractShape getParent() {
+        return parent;
+    }
+
+    /**
+     * Reasigna el orden de profundidad de todas las figuras embebidas de
+     * acuerdo a su posición dentro de la lista. Debe ser llamado sosteniendo
+     * el cerrojo.
+     */
+    private void renumberShapes() {
+        for (int i = 0; i < shapes.size(); i++)
+            shapes.get(i).zOrder = i;
+
+        firstZOrder = 0;
+        lastZOrder = shapes.size() - 1;
+    }
+
+    /**
+     * Determina si las figuras embebidas de ésta figura son gestionadas por
+     * medio de un índice espacial.
+     *
+     * @return <code>true</code> si la figura mantiene un índice espacial.
+     */
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    /**
+     * Activa o desactiva el índice espacial de las figuras embebidas. Cuando
+     * está activo las búsquedas por punto solo verifican las figuras cuyos
+     * límites contienen dicho punto. Por lo general solo la figura raíz del
+     * lienzo es indexada.
+     *
+     * @param indexed
+     *        <code>true</code> para indexar las figuras embebidas,
+     *        <code>false</code> para eliminar el índice.
+     */
+    public void setIndexed(boolean indexed) {
+        synchronized(lock) {
+            if (indexed == (index != null))
+                return;
+
+            if (!indexed) {
+                index = null;
+                staleShapes = null;
+                unindexedShapes = null;
+                return;
+            }
+
+            index = new BaZQuadTree<BaZAbstractShape>();
+            staleShapes = new HashSet<BaZAbstractShape>();
+            unindexedShapes = new LinkedHashSet<BaZAbstractShape>();
+
+            staleShapes.addAll(shapes);
+        }
+    }
+
+    /**
+     * Actualiza en el índice todas las figuras embebidas que han cambiado desde
+     * la última búsqueda. Los límites de las figuras se calculan por fuera del
+     * cerrojo; mientras tanto las figuras se mantienen fuera del índice, de
+     * manera que las búsquedas concurrentes siempre las verifican. Las figuras
+     * cuyos límites no son estables permanecen por fuera del índice.
+     * No debe ser llamado sosteniendo el cerrojo.
+     */
+    private void refreshIndex() {
+        BaZAbstractShape[] refreshed;
+
+        synchronized(lock) {
+            if (index == null || staleShapes.isEmpty())
+                return;
+
+            refreshed = staleShapes.toArray(new BaZAbstractShape[staleShapes.size()]);
+            staleShapes.clear();
+
+            for (int i = 0; i < refreshed.length; i++) {
+                index.remove(refreshed[i]);
+                unindexedShapes.add(refreshed[i]);
+            }
+        }
+
+        BaZRect[] rects = new BaZRect[refreshed.length];
+
+        for (int i = 0; i < refreshed.length; i++) {
+            BaZAbstractShape shape = refreshed[i];
+            rects[i] = shape.hasVolatileBounds() ? null : shape.bounds();
+        }
+
+        synchronized(lock) {
+            if (index == null)
+                return;
+
+            for (int i = 0; i < refreshed.length; i++) {
+                BaZAbstractShape shape = refreshed[i];
+                BaZRect rect = rects[i];
+
+                // Las figuras removidas o modificadas de nuevo durante el
+                // cálculo se omiten; éstas últimas serán actualizadas en la
+                // siguiente búsqueda.
+                if (rect == null || shape.parent != this || staleShapes.contains(shape)
+                        || !unindexedShapes.remove(shape))
+                    continue;
+
+                index.put(shape, rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+            }
+        }
+    }
+
+    /**
+     * Notifica a la figura padre que la posición o el tamaño de ésta figura
+     * han cambiado, de manera que las estructuras que dependen de sus límites
+     * sean actualizadas. Es llamado por todos los métodos que modifican la
+     * geometría de la figura.
+     * Si los límites ya estaban marcados para ser recalculados la notificación
+     * no se propaga, pues las figuras padre ya fueron invalidadas.
+     * La región que ocupaba la figura y la que ocupará son marcadas para ser
+     * repintadas en el lienzo.
+     */
+    public void invalidate() {
+        BaZCanvas shapeCanvas = canvas;
+
+        if (shapeCanvas != null)
+            shapeCanvas.shapeModified(this, cachedBounds);
+
+        this.invalidateGeometry();
+    }
+
+    /**
+     * Notifica al lienzo que la apariencia de la figura ha cambiado sin que
+     * cambie su geometría, como al modificar sus colores o su texto, de manera
+     * que la figura sea repintada y las baldosas que la contienen descartadas.
+     */
+    protected void contentChanged() {
+        BaZCanvas shapeCanvas = canvas;
+
+        if (shapeCanvas != null)
+            shapeCanvas.shapeModified(this, null);
+    }
+
+    /**
+     * Invalida la geometría de la figura sin marcar su región para ser
+     * repintada. Es utilizado cuando el cambio proviene de una figura embebida,
+     * la cual ya marcó su propia región.
+     */
+    protected void invalidateGeometry() {
+        geometryVersion++;
+
+        this.invalidateLinks();
+
+        if (boundsDirty)
+            return;
+
+        boundsDirty = true;
+
+        BaZAbstractShape shapeParent = parent;
+
+        if (shapeParent != null)
+            shapeParent.shapeChanged(this);
+    }
+
+    /**
+     * Invalida los enlaces que parten o llegan a ésta figura, pues su
+     * geometría depende de la posición y el tamaño de la misma.
+     */
+    protected void invalidateLinks() {
+        BaZShapeLink[] links;
+
+        // Los enlaces se invalidan por fuera del cerrojo, pues al invalidarse
+        // notifican a su figura padre, la cual toma su propio cerrojo.
+        synchronized(lock) {
+            int outgoing = outgoingLinks != null ? outgoingLinks.size() : 0;
+            int incoming = incomingLinks != null ? incomingLinks.size() : 0;
+
+            if (outgoing + incoming == 0)
+                return;
+
+            links = new BaZShapeLink[outgoing + incoming];
+
+            for (int i = 0; i < outgoing; i++)
+                links[i] = outgoingLinks.get(i);
+
+            for (int i = 0; i < incoming; i++)
+                links[outgoing + i] = incomingLinks.get(i);
+        }
+
+        for (int i = 0; i < links.length; i++)
+            links[i].invalidate();
+    }
+
+    /**
+     * Registra el enlace especificado como un enlace que parte de ésta figura.
+     *
+     * @param link
+     *        Enlace cuya figura fuente es ésta figura.
+     */
+    void addOutgoingLink(BaZShapeLink link) {
+        synchronized(lock) {
+            if (outgoingLinks == null)
+                outgoingLinks = new ArrayList<BaZShapeLink>(2);
+
+            outgoingLinks.add(link);
+        }
+    }
+
+    /**
+     * Elimina el registro del enlace especificado como enlace que parte de
+     * ésta figura.
+     *
+     * @param link
+     *        Enlace a ser removido.
+     */
+    void removeOutgoingLink(BaZShapeLink link) {
+        synchronized(lock) {
+            if (outgoingLinks != null)
+                outgoingLinks.remove(link);
+        }
+    }
+
+    /**
+     * Registra el enlace especificado como un enlace que llega a ésta figura.
+     *
+     * @param link
+     *        Enlace cuya figura destino es ésta figura.
+     */
+    void addIncomingLink(BaZShapeLink link) {
+        synchronized(lock) {
+            if (incomingLinks == null)
+                incomingLinks = new ArrayList<BaZShapeLink>(2);
+
+            incomingLinks.add(link);
+        }
+    }
+
+    /**
+     * Elimina el registro del enlace especificado como enlace que llega a
+     * ésta figura.
+     *
+     * @param link
+     *        Enlace a ser removido.
+     */
+    void removeIncomingLink(BaZShapeLink link) {
+        synchronized(lock) {
+            if (incomingLinks != null)
+                incomingLinks.remove(link);
+        }
+    }
+
+    /**
+     * Retorna los enlaces que parten de ésta figura.
+     *
+     * @return Lista de enlaces cuya figura fuente es ésta figura.
+     */
+    public List<BaZShapeLink> getOutgoingLinks() {
+        synchronized(lock) {
+            if (outgoingLinks == null)
+                return Collections.emptyList();
+
+            return new ArrayList<BaZShapeLink>(outgoingLinks);
+        }
+    }
+
+    /**
+     * Retorna los enlaces que llegan a ésta figura.
+     *
+     * @return Lista de enlaces cuya figura destino es ésta figura.
+     */
+    public List<BaZShapeLink> getIncomingLinks() {
+        synchronized(lock) {
+            if (incomingLinks == null)
+                return Collections.emptyList();
+
+            return new ArrayList<BaZShapeLink>(incomingLinks);
+        }
+    }
+
+    /**
+     * Retorna la versión de la geometría de la figura. Éste valor cambia cada
+     * vez que la posición o el tamaño de la figura son modificados, por lo que
+     * permite a otros objetos determinar si los cálculos que dependen de ella
+     * siguen siendo válidos.
+     *
+     * @return Versión actual de la geometría de la figura.
+     */
+    public long getGeometryVersion() {
+        return geometryVersion;
+    }
+
+    /**
+     * Es llamado cuando la geometría de la figura embebida especificada cambia.
+     * Marca la figura para ser actualizada en el índice y propaga el cambio
+     * hacia la figura padre.
+     *
+     * @param shape
+     *        Figura embebida que ha cambiado.
+     */
+    protected void shapeChanged(BaZAbstractShape shape) {
         synchronized(lock) {
-            return this.shapes.remove(shape);
+            if (index != null && shape.parent == this)
+                staleShapes.add(shape);
         }
+
+        this.invalidateGeometry();
+    }
+
+    /**
+     * Marca la región que ocupa la figura en el lienzo para ser repintada. La
+     * región es calculada a partir de los límites que tenga la figura en el
+     * momento de repintar el lienzo.
+     */
+    public void repaintShape() {
+        BaZCanvas shapeCanvas = canvas;
+
+        if (shapeCanvas != null)
+            shapeCanvas.addDirtyShape(this);
     }
 
     /**
@@ -208,10 +853,12 @@ public class BaZAbstractShape {
      * @return Primer elemento de la lista de objetos embebidos.
      */
     public BaZAbstractShape getFirstShape() {
-        if (shapes == null || shapes.isEmpty())
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        if (children.length == 0)
             return null;
 
-        return shapes.get(0);
+        return children[0];
     }
 
     /**
@@ -220,10 +867,12 @@ public class BaZAbstractShape {
      * @return Último elemento de la lista de objetos embebidos.
      */
     public BaZAbstractShape getLastShape() {
-        if (shapes == null || shapes.isEmpty())
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        if (children.length == 0)
             return null;
 
-        return shapes.get(shapes.size() - 1);
+        return children[children.length - 1];
     }
 
     /**
@@ -241,11 +890,10 @@ public class BaZAbstractShape {
         if (this.isTextEquals(text))
             return this;
 
-        if (shapes == null)
-            return null;
+        BaZAbstractShape[] children = shapesSnapshot;
 
-        for (int i = 0; i < shapes.size(); i++) {
-            BaZAbstractShape shape = shapes.get(i);
+        for (int i = 0; i < children.length; i++) {
+            BaZAbstractShape shape = children[i];
 
             if (shape.isTextEquals(text))
                 return shape;
@@ -270,14 +918,21 @@ public class BaZAbstractShape {
      *        Diferencial en Y a mover la figura.
      */
     public void move(double dx, double dy) {
-        position.shift(dx, dy);
-        
-        synchronized(lock) {
-            for (int i = 0; i < shapes.size(); i++) {
-                BaZAbstractShape shape = shapes.get(i);
-                shape.move(dx, dy);
-            }
+        if (positionStore != null) {
+            List<BaZAbstractShape> subtree = new ArrayList<BaZAbstractShape>();
+            this.collectSubtree(subtree);
+            BaZAbstractShape.moveAll(positionStore, subtree, dx, dy);
+            return;
         }
+
+        position.shift(dx, dy);
+
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        for (int i = 0; i < children.length; i++)
+            children[i].move(dx, dy);
+
+        this.invalidate();
     }
 
     /**
@@ -302,43 +957,182 @@ public class BaZAbstractShape {
      *         Si ningún objeto lo contiene entonces retorna <code>null</code>.
      */
     public BaZAbstractShape match(Point p) {
+        if (index != null)
+            return this.matchIndexed(p);
+
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        for (int i = 0; i < children.length; i++) {
+            BaZAbstractShape match = children[i].match(p);
+            if (match != null)
+                return match;
+        }
+
+        if (this.isInside(p))
+            return this;
+
+        return null;
+    }
+
+    /**
+     * Retorna el figura que contiene el punto especificado utilizando el índice
+     * espacial. Solo son verificadas las figuras cuyos límites contienen el
+     * punto, en el mismo orden de profundidad que el método <code>match</code>.
+     *
+     * @param p
+     *        Punto de referencia para la búsqueda de figura que lo contiene.
+     *
+     * @return <code>BaZAbstractShape</code> que contiene el punto especificado.
+     *         Si ningún objeto lo contiene entonces retorna <code>null</code>.
+     */
+    private BaZAbstractShape matchIndexed(Point p) {
+        List<BaZAbstractShape> candidates = new ArrayList<BaZAbstractShape>();
+
+        this.refreshIndex();
+
+        // Solo la consulta del índice se hace sosteniendo el cerrojo; las
+        // candidatas se verifican por fuera de él.
         synchronized(lock) {
-            for (int i = 0; i < shapes.size(); i++) {
-                BaZAbstractShape shape = shapes.get(i);
-                BaZAbstractShape match = shape.match(p);
-                if (match != null)
-                    return match;
+            if (index != null) {
+                index.query(p.getX(), p.getY(), candidates);
+                candidates.addAll(unindexedShapes);
+            } else {
+                candidates.addAll(Arrays.asList(shapesSnapshot));
             }
         }
 
+        Collections.sort(candidates, Z_ORDER);
+
+        for (int i = 0; i < candidates.size(); i++) {
+            BaZAbstractShape match = candidates.get(i).match(p);
+            if (match != null)
+                return match;
+        }
+
         if (this.isInside(p))
             return this;
 
         return null;
     }
 
+    /**
+     * Retorna las figuras embebidas cuyos límites interceptan el rectangulo
+     * especificado. Si la figura está indexada solo son verificadas las
+     * figuras que el índice reporta como candidatas.
+     *
+     * @param rect
+     *        Rectangulo de referencia.
+     *
+     * @return Lista de figuras embebidas que interceptan el rectangulo.
+     */
+    public List<BaZAbstractShape> searchShapesInRect(BaZRect rect) {
+        List<BaZAbstractShape> candidates = new ArrayList<BaZAbstractShape>();
+
+        this.refreshIndex();
+
+        synchronized(lock) {
+            if (index != null) {
+                index.query(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight(), candidates);
+                candidates.addAll(unindexedShapes);
+            } else {
+                candidates.addAll(Arrays.asList(shapesSnapshot));
+            }
+        }
+
+        List<BaZAbstractShape> result = new ArrayList<BaZAbstractShape>(candidates.size());
+
+        for (int i = 0; i < candidates.size(); i++) {
+            BaZAbstractShape shape = candidates.get(i);
+            BaZRect bounds = shape.bounds();
+
+            if (bounds != null && BaZRect.getIntersect(rect, bounds))
+                result.add(shape);
+        }
+
+        return result;
+    }
+
+    /**
+     * Determina si el frame de ésta figura depende de otras figuras o del
+     * último pintado, y por lo tanto puede cambiar sin que la figura sea
+     * invalidada. Las figuras con frame volatil no son indexadas.
+     *
+     * @return <code>true</code> si el frame de la figura no es estable.
+     */
+    protected boolean hasVolatileFrame() {
+        return false;
+    }
+
+    /**
+     * Determina si los límites de ésta figura, o de alguna de sus figuras
+     * embebidas, pueden cambiar sin que la figura sea invalidada.
+     *
+     * @return <code>true</code> si los límites de la figura no son estables.
+     */
+    public boolean hasVolatileBounds() {
+        if (boundsDirty)
+            this.bounds();
+
+        return volatileBounds;
+    }
+
     /**
      * Retorna el objeto <code>BaZRect</code> que delimita ésta figura.
+     * Los límites son guardados y solo se recalculan cuando la figura o alguna
+     * de sus figuras embebidas es invalidada, o cuando dependen de un frame
+     * volátil. El objeto retornado es compartido y no debe ser modificado.
+     *
+     * Las figuras embebidas se recorren sin sostener el cerrojo; éste solo se
+     * toma para publicar los límites calculados, descartándolos si otro hilo
+     * ya publicó unos calculados con una geometría más reciente.
      *
      * @return Objeto <code>BaZRect</code> que delimita la figura.
      */
     public BaZRect bounds() {
-        BaZRect rect = this.getFrame();
+        if (!boundsDirty && !volatileBounds)
+            return cachedBounds;
 
-        synchronized(lock) {
-            for (int i = 0; i < shapes.size(); i++) {
-                BaZAbstractShape shape = (BaZAbstractShape) shapes.get(i);
+        // Se limpia antes de calcular para no perder invalidaciones
+        // ocurridas durante el cálculo.
+        boundsDirty = false;
 
-                if (shape == this)
-                    continue;
+        long version = geometryVersion;
+        BaZRect rect = this.getFrame();
+        BaZRect union = null;
+        boolean volatileRect = this.hasVolatileFrame();
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        for (int i = 0; i < children.length; i++) {
+            BaZAbstractShape shape = children[i];
+
+            if (shape == this)
+                continue;
+
+            BaZRect shapeRect = shape.bounds();
+            volatileRect |= shape.volatileBounds;
+
+            if (shapeRect == null)
+                continue;
+
+            // Los límites de las figuras embebidas son compartidos, por lo
+            // que solo se une en el lugar sobre el rectangulo propio.
+            if (rect == null)
+                rect = shapeRect;
+            else if (rect == union)
+                rect.unionInto(shapeRect, rect);
+            else
+                rect = union = rect.union(shapeRect);
+        }
 
-                if (rect == null)
-                    rect = shape.bounds();
-                else
-                    rect = rect.union(shape.bounds());
+        synchronized(lock) {
+            if (version >= boundsVersion) {
+                boundsVersion = version;
+                volatileBounds = volatileRect;
+                cachedBounds = rect;
             }
         }
-       return rect;
+
+        return rect;
     }
 
     /**
@@ -401,16 +1195,172 @@ public class BaZAbstractShape {
      * @param g
      *        <code>Graphics2D</code> del lienzo padre.
      */
-    @SuppressWarnings("NestedSynchronizedStatement")
-    public synchronized void paintRecursive(Graphics2D g) {
+    public void paintRecursive(Graphics2D g) {
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        for (int i = children.length-1 ; i >= 0; i--)
+            children[i].paintRecursive(g);
+
+        this.paintContent(g);
+        this.paintHighlight(g);
+    }
+
+    /**
+     * Pinta de manera recursiva los objetos embebidos al objeto fuente, omitiendo
+     * aquellos cuyos límites no interceptan el rectangulo especificado. Si la
+     * figura está indexada las figuras visibles son obtenidas del índice.
+     * Las figuras con límites volátiles siempre son pintadas.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo padre.
+     * @param clip
+     *        Rectangulo visible, en coordenadas del lienzo sin zoom.
+     *
+     * @return Número de figuras embebidas que no fueron pintadas por estar
+     *         fuera del rectangulo visible. Una figura omitida cuenta como una
+     *         sola sin importar las figuras que contenga.
+     */
+    public int paintRecursive(Graphics2D g, Rectangle clip) {
+        return this.paintRecursive(g, clip, null, true);
+    }
+
+    /**
+     * Pinta de manera recursiva los objetos embebidos al objeto fuente, omitiendo
+     * aquellos cuyos límites no interceptan el rectangulo especificado y
+     * aquellos que se encuentran en el conjunto de figuras excluidas, junto con
+     * las figuras que éstos contengan.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo padre.
+     * @param clip
+     *        Rectangulo visible, en coordenadas del lienzo sin zoom.
+     * @param excluded
+     *        Figuras que no deben ser pintadas, puede ser <code>null</code>.
+     * @param highlighted
+     *        <code>true</code> para pintar el resaltado de las figuras
+     *        seleccionadas o enfocadas, <code>false</code> para omitirlo.
+     *
+     * @return Número de figuras embebidas que no fueron pintadas por estar
+     *         fuera del rectangulo visible. Las figuras excluidas no son
+     *         contadas.
+     */
+    public int paintRecursive(Graphics2D g, Rectangle clip,
+            Set<BaZAbstractShape> excluded, boolean highlighted) {
+        int culled = 0;
+        List<BaZAbstractShape> visible = null;
+        BaZAbstractShape[] children = shapesSnapshot;
+
+        // Los hilos de pintado del lienzo no modifican el índice; éste fue
+        // actualizado por prepareForPaint antes de repartir el pintado.
+        if (!BaZCanvas.isRenderThread())
+            this.refreshIndex();
+
+        // Solo la consulta del índice se hace sosteniendo el cerrojo; las
+        // figuras se pintan por fuera de él.
         synchronized(lock) {
-            for (int i = shapes.size()-1 ; i >= 0; i--) {
-                BaZAbstractShape shape = shapes.get(i);
-                shape.paintRecursive(g);
+            if (index != null) {
+                visible = new ArrayList<BaZAbstractShape>();
+
+                index.query(clip.getX(), clip.getY(), clip.getWidth(), clip.getHeight(), visible);
+                visible.addAll(unindexedShapes);
+                children = shapesSnapshot;
             }
         }
 
-        this.paintFeatures(g);
+        if (visible != null) {
+            Collections.sort(visible, Z_ORDER);
+            culled = children.length - visible.size();
+
+            for (int i = visible.size()-1 ; i >= 0; i--) {
+                BaZAbstractShape shape = visible.get(i);
+
+                if (excluded == null || !excluded.contains(shape))
+                    culled += shape.paintRecursive(g, clip, excluded, highlighted);
+            }
+
+        } else {
+            for (int i = children.length-1 ; i >= 0; i--) {
+                BaZAbstractShape shape = children[i];
+
+                if (excluded != null && excluded.contains(shape))
+                    continue;
+
+                BaZRect rect = BaZAbstractShape.getPaintBounds(shape);
+
+                if (rect != null && !rect.intersects(clip)) {
+                    culled++;
+                    continue;
+                }
+
+                culled += shape.paintRecursive(g, clip, excluded, highlighted);
+            }
+        }
+
+        this.paintContent(g);
+
+        if (highlighted)
+            this.paintHighlight(g);
+
+        return culled;
+    }
+
+    /**
+     * Retorna los límites con los que se decide si la figura especificada es
+     * pintada, o <code>null</code> si debe ser pintada siempre. En los hilos de
+     * pintado del lienzo se usan los límites guardados sin recalcularlos, de
+     * manera que el pintado no modifique las figuras.
+     *
+     * @param shape
+     *        Figura a pintar.
+     *
+     * @return Límites de la figura, o <code>null</code>.
+     */
+    private static BaZRect getPaintBounds(BaZAbstractShape shape) {
+        if (BaZCanvas.isRenderThread())
+            return shape.volatileBounds ? null : shape.cachedBounds;
+
+        return shape.hasVolatileBounds() ? null : shape.bounds();
+    }
+
+    /**
+     * Actualiza los límites de la figura y de sus figuras embebidas, la
+     * geometría de los enlaces y sus anclas, y el índice espacial de ésta
+     * figura, de manera que un pintado posterior solo lea el estado de las
+     * figuras. Es llamado por el lienzo en el hilo de eventos antes de
+     * repartir el pintado entre los hilos de pintado.
+     */
+    public void prepareForPaint() {
+        this.bounds();
+        this.refreshIndex();
+    }
+
+    /**
+     * Pinta la figura con el nivel de detalle que corresponde al zoom del
+     * lienzo. No pinta las figuras embebidas.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo padre.
+     */
+    private void paintContent(Graphics2D g) {
+        if (this.isSimplified())
+            this.paintSimplified(g);
+        else
+            this.paintFeatures(g);
+    }
+
+    /**
+     * Pinta el resaltado de la figura si ésta se encuentra seleccionada o
+     * enfocada. No pinta las figuras embebidas ni pinta nada si el nivel de
+     * detalle del lienzo omite los resaltados.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo padre.
+     */
+    public void paintHighlight(Graphics2D g) {
+        BaZCanvas shapeCanvas = canvas;
+
+        if (shapeCanvas != null && !shapeCanvas.getLevelOfDetail().isHighlightVisible(shapeCanvas.zoom))
+            return;
 
         if (isSelected())
             this.paintSelected(g);
@@ -425,14 +1375,14 @@ public class BaZAbstractShape {
      *         <code>Graphics2D</code> del lienzo padre.
      */
     private void paintSelected(Graphics2D g) {
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, canvas.getSelectedAlphaValue()));
+        g.setComposite(BaZPaintCache.getComposite(canvas.getSelectedAlphaValue()));
         g.setColor(Color.gray);
         g.setStroke(STROKE_BOLD);
 
         paintShape(g);
 
         g.setStroke(STROKE_NORMAL);
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f ));
+        g.setComposite(AlphaComposite.SrcOver);
     }
 
     /**
@@ -442,14 +1392,14 @@ public class BaZAbstractShape {
      *         <code>Graphics2D</code> del lienzo padre.
      */
     private void paintFocused(Graphics2D g) {
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, canvas.getFocusedAlphaValue()));
+        g.setComposite(BaZPaintCache.getComposite(canvas.getFocusedAlphaValue()));
         g.setColor(Color.blue);
         g.setStroke(STROKE_BOLD);
 
         paintShape(g);
 
         g.setStroke(STROKE_NORMAL);
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f ));
+        g.setComposite(AlphaComposite.SrcOver);
     }
     
     /**
@@ -462,7 +1412,8 @@ public class BaZAbstractShape {
      * @return Ancla que tiene por llave la cadena de caractéres especificada.
      */
     public BaZAnchor2D getAnchor(String key) {
-        return (BaZAnchor2D) anchors.get(key);
+        this.refreshAnchors();
+        return anchors.getAnchor(anchors.indexOf(key));
     }
 
    /**
@@ -474,16 +1425,8 @@ public class BaZAbstractShape {
     * @return Llave del ancla mas cercana al punto de referencia.
     */
     public String getAnchorKeyClosestToPoint(Point p) {
-        BaZAnchor2D anchor = this.getAnchorClosestToPoint(p);
-
-        for (Iterator iterator = anchors.keySet().iterator(); iterator.hasNext();) {
-            String key = (String) iterator.next();
-
-            if (anchors.get(key) == anchor)
-                return key;
-        }
-
-        return null;
+        this.refreshAnchors();
+        return anchors.getKey(anchors.closest(p.getX(), p.getY()));
     }
 
     /**
@@ -495,25 +1438,8 @@ public class BaZAbstractShape {
      * @return Ancla mas cercana al punto de referencia.
      */
     public BaZAnchor2D getAnchorClosestToPoint(Point p) {
-        double smallest_distance = Integer.MAX_VALUE;
-        BaZAnchor2D closest_anchor = null;
-
-        Iterator iterator = anchors.values().iterator();
-
-        while(iterator.hasNext()) {
-            BaZAnchor2D anchor = (BaZAnchor2D) iterator.next();
-            double dx = anchor.getPosition().getX() - p.getX();
-            double dy = anchor.getPosition().getY() - p.getY();
-
-            double d = Math.sqrt(dx*dx + dy*dy);
-
-            if (d < smallest_distance) {
-                smallest_distance = d;
-                closest_anchor = anchor;
-            }
-        }
-
-        return closest_anchor;
+        this.refreshAnchors();
+        return anchors.getAnchor(anchors.closest(p.getX(), p.getY()));
     }
 
     /**
@@ -528,15 +1454,25 @@ public class BaZAbstractShape {
      *        Dirección para el ancla.
      */
     public void setAnchor(String key, BaZVector2D position, BaZVector2D direction) {
-        BaZAnchor2D anchor = this.getAnchor(key);
-
-        if (anchor == null) {
-            anchor = new BaZAnchor2D();
-            anchors.put(key, anchor);
-        }
+        anchors.set(key, position.getX(), position.getY(), direction);
+    }
 
-        anchor.setPosition(position);
-        anchor.setDirection(direction);
+    /**
+     * Modifica el ancla de la casilla especificada, actualizando en el lugar
+     * su posición y dirección. Las casillas de las anclas estándar son las
+     * constantes <code>ANCHOR_SLOT_*</code>.
+     *
+     * @param slot
+     *        Casilla del ancla a modificar.
+     * @param x
+     *        Coordenada X de la posición del ancla.
+     * @param y
+     *        Coordenada Y de la posición del ancla.
+     * @param direction
+     *        Dirección para el ancla.
+     */
+    protected void setAnchor(int slot, double x, double y, BaZVector2D direction) {
+        anchors.set(slot, x, y, direction);
     }
 
     /* --- METODOS GETTERS Y SETTERS PARA LAS VARIABLES GLOBALES --- */
@@ -558,6 +1494,7 @@ public class BaZAbstractShape {
      */
     public void setBackground(Color background) {
         this.background = background;
+        this.contentChanged();
     }
 
     /**
@@ -577,6 +1514,7 @@ public class BaZAbstractShape {
      */
     public void setBorderColor(Color borderColor) {
         this.borderColor = borderColor;
+        this.contentChanged();
     }
 
     /**
@@ -596,7 +1534,8 @@ public class BaZAbstractShape {
      */
     public void setBorderSize(int borderSize) {
         this.borderSize = borderSize;
-        borderStroke = new BasicStroke(this.borderSize);
+        borderStroke = BaZPaintCache.getStroke(this.borderSize);
+        this.contentChanged();
     }
 
     /**
@@ -621,11 +1560,17 @@ public class BaZAbstractShape {
     }
 
     /**
-     * Retorna la posición actual de la figura dentro del lienzo padre.
+     * Retorna la posición actual de la figura dentro del lienzo padre. Si la
+     * figura usa el almacén de posiciones del lienzo, el vector retornado es
+     * una copia actualizada al momento del llamado, y modificarlo no cambia
+     * la posición de la figura.
      *
      * @return Posición de la figura.
      */
     public BaZVector2D getPosition() {
+        if (positionStore != null)
+            position.set(positionStore.getX(positionSlot), positionStore.getY(positionSlot));
+
         return position;
     }
 
@@ -635,6 +1580,9 @@ public class BaZAbstractShape {
      * @return Posición X de la figura.
      */
     public double getX() {
+        if (positionStore != null)
+            return positionStore.getX(positionSlot);
+
         return position.getX();
     }
 
@@ -646,6 +1594,11 @@ public class BaZAbstractShape {
      */
     public void setX(double x) {
         position.setX(x);
+
+        if (positionStore != null)
+            positionStore.setX(positionSlot, x);
+
+        this.invalidate();
     }
 
     /**
@@ -654,6 +1607,9 @@ public class BaZAbstractShape {
      * @return Posición Y de la figura.
      */
     public double getY() {
+        if (positionStore != null)
+            return positionStore.getY(positionSlot);
+
         return position.getY();
     }
 
@@ -665,6 +1621,11 @@ public class BaZAbstractShape {
      */
     public void setY(double y) {
         position.setY(y);
+
+        if (positionStore != null)
+            positionStore.setY(positionSlot, y);
+
+        this.invalidate();
     }
 
     /**
@@ -676,7 +1637,12 @@ public class BaZAbstractShape {
      */
     public void setPosition(BaZVector2D position) {
         this.position = position;
+
+        if (positionStore != null)
+            positionStore.set(positionSlot, position.getX(), position.getY());
+
         this.updateAnchors();
+        this.invalidate();
     }
 
     /**
@@ -687,9 +1653,13 @@ public class BaZAbstractShape {
      *        Posición para la figura.
      */
     public void setPosition(double x, double y) {
-        position.setX(x);
-        position.setY(y);
+        position.set(x, y);
+
+        if (positionStore != null)
+            positionStore.set(positionSlot, x, y);
+
         this.updateAnchors();
+        this.invalidate();
     }
 
     /**
@@ -710,7 +1680,11 @@ public class BaZAbstractShape {
      *        <code>false</code> para indicar lo contrario.
      */
     public void setSelected(boolean selected) {
+        if (this.selected == selected)
+            return;
+
         this.selected = selected;
+        this.repaintShape();
     }
 
     /**
@@ -731,26 +1705,53 @@ public class BaZAbstractShape {
      *        <code>false</code> para indicar lo contrario.
      */
     public void setFocused(boolean focused) {
+        if (this.focused == focused)
+            return;
+
         this.focused = focused;
+        this.repaintShape();
     }
 
     /**
-     * Retorna la lista de figuras embebidas a esta figura.
+     * Retorna la lista de figuras embebidas a esta figura. La lista retornada
+     * es una copia inmutable de la lista en el momento del llamado, por lo que
+     * puede ser recorrida mientras otro hilo modifica las figuras embebidas.
      *
      * @return Lista de figuras embebidas.
      */
-    public List getShapes() {
-        return shapes;
+    public List<BaZAbstractShape> getShapes() {
+        return Collections.unmodifiableList(Arrays.asList(shapesSnapshot));
     }
 
     /**
-     * Modifica la lista de figuras embebidas referenciando la lista especificada.
+     * Modifica la lista de figuras embebidas copiando la lista especificada.
+     * Las modificaciones posteriores de la lista especificada no afectan a
+     * ésta figura.
      *
      * @param shapes
-     *        Lista de figuras a ser referenciadas por esta figura.
+     *        Lista de figuras a ser contenidas por esta figura.
      */
-    public void setShapes(List shapes) {
-        this.shapes = shapes;
+    public void setShapes(List<? extends BaZAbstractShape> shapes) {
+        synchronized(lock) {
+            for (int i = 0; i < this.shapes.size(); i++)
+                this.detachShape(this.shapes.get(i));
+
+            this.shapes = shapes != null ? new ArrayList<BaZAbstractShape>(shapes) : new ArrayList<BaZAbstractShape>();
+            this.publishShapes();
+
+            if (index != null) {
+                index.clear();
+                staleShapes.clear();
+                unindexedShapes.clear();
+            }
+
+            this.renumberShapes();
+
+            for (int i = 0; i < this.shapes.size(); i++)
+                this.attachShape(this.shapes.get(i));
+        }
+
+        this.invalidate();
     }
 
     /**
@@ -771,6 +1772,7 @@ public class BaZAbstractShape {
      */
     public void setText(String text) {
         this.text = text;
+        this.contentChanged();
     }
 
     /**
@@ -790,6 +1792,7 @@ public class BaZAbstractShape {
      */
     public void setTextColor(Color textColor) {
         this.textColor = textColor;
+        this.contentChanged();
     }
 
     /**
@@ -810,6 +1813,7 @@ public class BaZAbstractShape {
      */
     public void setTextVisible(boolean textVisible) {
         this.textVisible = textVisible;
+        this.contentChanged();
     }
 
     // --- --- ---
@@ -897,9 +1901,59 @@ public class BaZAbstractShape {
      */
     public void paintShape(Graphics2D g) {}
 
+    /**
+     * Pinta una versión simplificada de la figura, utilizada cuando el zoom
+     * del lienzo se encuentra por debajo del umbral de detalle. Por defecto
+     * pinta la figura completa; las figuras que tengan una forma más simple
+     * deberán sobre-escribir éste método.
+     *
+     * @param g
+     *        <code>Graphics2D</code> del lienzo padre.
+     */
+    public void paintSimplified(Graphics2D g) {
+        this.paintFeatures(g);
+    }
+
+    /**
+     * Determina si la figura debe ser pintada de manera simplificada de
+     * acuerdo al nivel de detalle y al zoom del lienzo.
+     *
+     * @return <code>true</code> si la figura se pinta simplificada.
+     */
+    protected boolean isSimplified() {
+        BaZCanvas shapeCanvas = canvas;
+        return shapeCanvas != null && !shapeCanvas.getLevelOfDetail().isShapeDetailed(shapeCanvas.zoom);
+    }
+
+    /**
+     * Determina si el texto de la figura debe ser pintado, de acuerdo a su
+     * visibilidad y al nivel de detalle del lienzo.
+     *
+     * @return <code>true</code> si el texto de la figura se pinta.
+     */
+    protected boolean isTextPainted() {
+        BaZCanvas shapeCanvas = canvas;
+        return textVisible && (shapeCanvas == null || shapeCanvas.getLevelOfDetail().isTextVisible(shapeCanvas.zoom));
+    }
+
     /**
      * Actualiza todas las anclas asociadas a la figura. Éste método será
      * sobre-escrito por toda clase que herede de <code>BaZAbstractShape</code>.
      */
     public void updateAnchors() {}
+
+    /**
+     * Actualiza las anclas de la figura si su geometría ha cambiado desde la
+     * última vez que fueron calculadas, como ocurre al mover la figura o al
+     * modificar su tamaño.
+     */
+    protected void refreshAnchors() {
+        long version = geometryVersion;
+
+        if (anchorsVersion == version)
+            return;
+
+        this.updateAnchors();
+        anchorsVersion = version;
+    }
 }
\ No newline at end of file
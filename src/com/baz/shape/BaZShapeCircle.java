@@ -8,7 +8,6 @@ package com.baz.shape;
 import com.baz.graphics.base.BaZLabel;
 import com.baz.shape.base.BaZAnchor2D;
 import com.baz.shape.base.BaZRect;
-import com.baz.shape.base.BaZVector2D;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
@@ -57,6 +56,7 @@ public class BaZShapeCircle extends BaZAbstractShape {
      */
     public void setRadius(double radius) {
         this.radius = radius;
+        this.invalidate();
     }
 
     /**
@@ -93,11 +93,14 @@ public class BaZShapeCircle extends BaZAbstractShape {
 
     @Override
     public void updateAnchors() {
-        this.setAnchor(ANCHOR_CENTER, position, BaZAnchor2D.DIRECTION_FREE);
-        this.setAnchor(ANCHOR_TOP, position.operation(new BaZVector2D(0, -radius), BaZVector2D.ADD), BaZAnchor2D.DIRECTION_TOP);
-        this.setAnchor(ANCHOR_BOTTOM, position.operation(new BaZVector2D(0, radius), BaZVector2D.ADD), BaZAnchor2D.DIRECTION_BOTTOM);
-        this.setAnchor(ANCHOR_LEFT, position.operation(new BaZVector2D(-radius, 0), BaZVector2D.ADD), BaZAnchor2D.DIRECTION_LEFT);
-        this.setAnchor(ANCHOR_RIGHT, position.operation(new BaZVector2D(radius, 0), BaZVector2D.ADD), BaZAnchor2D.DIRECTION_RIGHT);
+        double x = this.getX();
+        double y = this.getY();
+
+        this.setAnchor(ANCHOR_SLOT_CENTER, x, y, BaZAnchor2D.DIRECTION_FREE);
+        this.setAnchor(ANCHOR_SLOT_TOP, x, y - radius, BaZAnchor2D.DIRECTION_TOP);
+        this.setAnchor(ANCHOR_SLOT_BOTTOM, x, y + radius, BaZAnchor2D.DIRECTION_BOTTOM);
+        this.setAnchor(ANCHOR_SLOT_LEFT, x - radius, y, BaZAnchor2D.DIRECTION_LEFT);
+        this.setAnchor(ANCHOR_SLOT_RIGHT, x + radius, y, BaZAnchor2D.DIRECTION_RIGHT);
     }
 
     @Override
@@ -108,7 +111,7 @@ public class BaZShapeCircle extends BaZAbstractShape {
 
         g.setStroke(STROKE_NORMAL);
 
-        if (textVisible) {
+        if (this.isTextPainted()) {
             g.setColor(textColor);
             BaZLabel.paintCenteredString(this.getText(), this.getX(), this.getY(), g);
         }
@@ -134,4 +137,10 @@ public class BaZShapeCircle extends BaZAbstractShape {
         }
         g.drawOval(x, y, (int) radius*2, (int) radius*2);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void paintSimplified(Graphics2D g) {
+        g.setColor(background != null ? background : Color.BLACK);
+        g.fillRect((int) (this.getX() - radius), (int) (this.getY() - radius), (int) (radius*2), (int) (radius*2));
+    }
+}
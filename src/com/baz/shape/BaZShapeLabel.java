@@ -22,8 +22,8 @@ import java.awt.Point;
  */
 public class BaZShapeLabel extends BaZAbstractShape {
 
-    /** Elemento grafico del label. */
-    protected transient Graphics2D g2d = null;
+    /** Fuente con la que se pinta el texto de los labels. */
+    protected static final Font LABEL_FONT = new Font("Verdana", Font.BOLD, 11);
 
     /**
      * Constructor por defecto
@@ -32,9 +32,17 @@ public class BaZShapeLabel extends BaZAbstractShape {
         super();
     }
 
+    /* El frame se mide con el contexto de fuentes compartido, por lo que no
+     * depende del último pintado y puede ser calculado desde cualquier hilo. */
     @Override
     public BaZRect getFrame() {
-        return BaZLabel.getFrame(this.getText(), this.getX(), this.getY(), g2d);
+        return BaZLabel.getFrame(this.getText(), this.getX(), this.getY(), LABEL_FONT);
+    }
+
+    @Override
+    public void setText(String text) {
+        super.setText(text);
+        this.invalidate();
     }
 
     @Override
@@ -46,11 +54,9 @@ public class BaZShapeLabel extends BaZAbstractShape {
     public void paintFeatures(Graphics2D g) {
         super.paintFeatures(g);
 
-        this.g2d = g;
-
-        if (textVisible) {
-            g2d.setColor(textColor);
-            g2d.setFont(new Font("Verdana", Font.BOLD, 11));
+        if (this.isTextPainted()) {
+            g.setColor(textColor);
+            g.setFont(LABEL_FONT);
             BaZLabel.paintCenteredString(this.getText(), (int)getX(), (int)getY(), g);
         }
     }
@@ -5,12 +5,12 @@
  */
 package com.baz.shape;
 
+import com.baz.canvas.BaZCanvas;
 import com.baz.shape.base.BaZAnchor2D;
 import com.baz.shape.base.BaZRect;
 import com.baz.shape.base.BaZVector2D;
 import com.baz.shape.link.BaZAbstractLink;
 import com.baz.shape.link.BaZLinkArc;
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
@@ -52,6 +52,15 @@ public class BaZShapeLink extends BaZAbstractShape {
     /** Tipo de arco a utilizar por defecto. */
     protected int shape = SHAPE_ARC;
 
+    /** Determina si la geometría del enlace debe ser recalculada aunque las
+     * figuras fuente y destino no hayan cambiado. */
+    protected transient boolean geometryDirty = true;
+
+    /* --- Versiones con las que se calculó la geometría del enlace por última vez --- */
+    private transient long sourceVersion = -1;
+    private transient long targetVersion = -1;
+    private transient long linkVersion = -1;
+
 
     /**
      * Construye un enlace con las características por defecto.
@@ -201,6 +210,32 @@ public class BaZShapeLink extends BaZAbstractShape {
         if (link == null) {
             link = this.createLinkInstance();
             link.setFlatness(flatness);
+            link.setColor(borderColor != null ? borderColor : Color.BLACK);
+        }
+    }
+
+    /**
+     * Registra el enlace en las figuras fuente y destino cuando es añadido a
+     * una figura, y elimina el registro cuando es removido de ella.
+     */
+    @Override
+    protected void setParent(BaZAbstractShape parent) {
+        BaZAbstractShape oldParent = this.parent;
+        super.setParent(parent);
+
+        if (oldParent == null && parent != null) {
+            if (source != null)
+                source.addOutgoingLink(this);
+
+            if (target != null)
+                target.addIncomingLink(this);
+
+        } else if (oldParent != null && parent == null) {
+            if (source != null)
+                source.removeOutgoingLink(this);
+
+            if (target != null)
+                target.removeIncomingLink(this);
         }
     }
 
@@ -212,6 +247,7 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public final void setSourceTangentOffset(double offset) {
         link.setStartTangentOffset(offset);
+        this.invalidate();
     }
 
     /**
@@ -222,6 +258,7 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public final void setTargetTangentOffset(double offset) {
         link.setEndTangentOffset(offset);
+        this.invalidate();
     }
 
     /**
@@ -245,6 +282,7 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public void setSourceOffset(BaZVector2D offset) {
         link.setStartOffset(offset);
+        this.invalidate();
     }
 
     /**
@@ -268,6 +306,7 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public void setTargetOffset(BaZVector2D offset) {
         link.setEndOffset(offset);
+        this.invalidate();
     }
 
     /**
@@ -287,6 +326,7 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public void setLink(BaZAbstractLink link) {
         this.link = link;
+        geometryDirty = true;
     }
 
     /**
@@ -306,6 +346,8 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public void setPattern(String pattern) {
         this.pattern = pattern;
+        geometryDirty = true;
+        this.invalidate();
     }
 
     /**
@@ -325,6 +367,8 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public void setShape(int shape) {
         this.shape = shape;
+        geometryDirty = true;
+        this.invalidate();
     }
 
     /**
@@ -345,7 +389,16 @@ public class BaZShapeLink extends BaZAbstractShape {
      *        Figura inicial para el enlace.
      */
     public void setSource(BaZAbstractShape source) {
+        if (parent != null && this.source != null)
+            this.source.removeOutgoingLink(this);
+
         this.source = source;
+        geometryDirty = true;
+
+        if (parent != null && source != null)
+            source.addOutgoingLink(this);
+
+        this.invalidate();
     }
 
     /**
@@ -365,6 +418,8 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public void setSourceAnchorKey(String sourceAnchorKey) {
         this.sourceAnchorKey = sourceAnchorKey;
+        geometryDirty = true;
+        this.invalidate();
     }
 
     /**
@@ -383,7 +438,16 @@ public class BaZShapeLink extends BaZAbstractShape {
      *        Figura destino para la punta final del enlace.
      */
     public void setTarget(BaZAbstractShape target) {
+        if (parent != null && this.target != null)
+            this.target.removeIncomingLink(this);
+
         this.target = target;
+        geometryDirty = true;
+
+        if (parent != null && target != null)
+            target.addIncomingLink(this);
+
+        this.invalidate();
     }
 
     /**
@@ -403,6 +467,8 @@ public class BaZShapeLink extends BaZAbstractShape {
      */
     public void setTargetAnchorKey(String targetAnchorKey) {
         this.targetAnchorKey = targetAnchorKey;
+        geometryDirty = true;
+        this.invalidate();
     }
 
     /**
@@ -415,16 +481,31 @@ public class BaZShapeLink extends BaZAbstractShape {
     public void setMousePosition(Point mouse) {
         link.setDirection(BaZVector2D.createBazVector2D(mouse).operation(target.getPosition(), BaZVector2D.SUB));
         link.setMousePosition(BaZVector2D.createBazVector2D(mouse));
+        this.invalidate();
     }
 
     /**
-     * Actualiza en link con cada movimento de arrastre del mismo.
+     * Actualiza en link con cada movimento de arrastre del mismo. La geometría
+     * solo es recalculada si la posición o el tamaño de las figuras fuente y
+     * destino, las llaves de las anclas, o los parámetros del enlace han
+     * cambiado desde el último cálculo; de lo contrario se conserva la curva
+     * y el frame calculados previamente.
      */
     public void update() {
         this.initLink(0);
 
-        source.updateAnchors();
-        target.updateAnchors();
+        if (source == null || target == null)
+            return;
+
+        if (!geometryDirty
+                && sourceVersion == source.getGeometryVersion()
+                && targetVersion == target.getGeometryVersion()
+                && linkVersion == link.getVersion())
+            return;
+
+        sourceVersion = source.getGeometryVersion();
+        targetVersion = target.getGeometryVersion();
+        geometryDirty = false;
 
         link.setStartAnchor(source.getAnchor(sourceAnchorKey));
         link.setEndAnchor(target.getAnchor(targetAnchorKey));
@@ -432,14 +513,40 @@ public class BaZShapeLink extends BaZAbstractShape {
         link.setHasLoop(source == target);
 
         link.update();
+
+        linkVersion = link.getVersion();
+    }
+
+    /**
+     * Actualiza el enlace antes de pintarlo o de calcular su frame, excepto
+     * en los hilos de pintado del lienzo, donde el enlace solo es leído; el
+     * lienzo lo actualiza en el hilo de eventos antes de repartir el pintado.
+     *
+     * @return <code>true</code> si el enlace existe y puede ser leído.
+     */
+    private boolean updateForPaint() {
+        if (!BaZCanvas.isRenderThread())
+            this.update();
+
+        return link != null;
     }
 
     @Override
     public BaZRect getFrame() {
-        this.update();
+        if (source == null || target == null || !this.updateForPaint())
+            return null;
+
         return link.getFrame();
     }
 
+    @Override
+    public void setBorderColor(Color borderColor) {
+        if (link != null)
+            link.setColor(borderColor != null ? borderColor : Color.BLACK);
+
+        super.setBorderColor(borderColor);
+    }
+
     @Override
     public boolean isInside(Point p) {
         if (link == null)
@@ -451,17 +558,26 @@ public class BaZShapeLink extends BaZAbstractShape {
     @Override
     public void setText(String text) {
         this.pattern = text;
+        geometryDirty = true;
+        this.invalidate();
     }
 
     @Override
     public void setTextColor(Color color) {
-        link.setLabelColor(textColor);
+        this.textColor = color;
+
+        if (link != null)
+            link.setLabelColor(color);
+
+        this.contentChanged();
     }
 
     @Override
     public void setTextVisible(boolean visible) {
         if (link != null)
             link.setLabelVisible(visible);
+
+        this.contentChanged();
     }
 
     @Override
@@ -474,20 +590,41 @@ public class BaZShapeLink extends BaZAbstractShape {
 
     @Override
     public void paintFeatures(Graphics2D g) {
-        this.update();
+        if (!this.updateForPaint())
+            return;
 
-        g.setStroke(new BasicStroke(borderSize));
+        g.setStroke(borderStroke);
 
-        if (borderColor != null)
-            link.setColor(borderColor);
-        else
-            link.setColor(Color.BLACK);
+        if (this.isTextPainted())
+            link.paintFeatures(g);
+        else {
+            g.setColor(link.getColor());
+            link.paintShape(g);
+        }
+    }
+
+    /* Por debajo del umbral de detalle el enlace se pinta como un segmento recto sin flechas. */
+    @Override
+    public void paintSimplified(Graphics2D g) {
+        if (!this.updateForPaint() || link.getStartWithOffset() == null || link.getEndWithOffset() == null)
+            return;
 
-        link.paintFeatures(g);
+        BaZVector2D start = link.getStartWithOffset();
+        BaZVector2D end = link.getEndWithOffset();
+
+        g.setStroke(STROKE_NORMAL);
+        g.setColor(borderColor != null ? borderColor : Color.BLACK);
+        g.drawLine((int) start.getX(), (int) start.getY(), (int) end.getX(), (int) end.getY());
+    }
+
+    @Override
+    protected boolean isSimplified() {
+        return canvas != null && !canvas.getLevelOfDetail().isLinkCurved(canvas.zoom);
     }
 
     @Override
     public void paintShape(Graphics2D g) {
-        link.paintShape(g);
+        if (link != null)
+            link.paintShape(g);
     }
 }
\ No newline at end of file
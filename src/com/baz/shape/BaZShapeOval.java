@@ -8,7 +8,7 @@ package com.baz.shape;
 import com.baz.graphics.base.BaZLabel;
 import com.baz.shape.base.BaZAnchor2D;
 import com.baz.shape.base.BaZRect;
-import com.baz.shape.base.BaZVector2D;
+import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 
@@ -67,6 +67,7 @@ public class BaZShapeOval extends BaZAbstractShape {
      */
     public void setWidth(int width) {
         this.width = width;
+        this.invalidate();
     }
 
     /**
@@ -87,6 +88,7 @@ public class BaZShapeOval extends BaZAbstractShape {
      */
     public void setHeigth(int height) {
         this.height = height;
+        this.invalidate();
     }
 
     /**
@@ -123,11 +125,14 @@ public class BaZShapeOval extends BaZAbstractShape {
 
     @Override
     public void updateAnchors() {
-        this.setAnchor(ANCHOR_CENTER, position, BaZAnchor2D.DIRECTION_FREE);
-        this.setAnchor(ANCHOR_TOP, position.operation(new BaZVector2D(0, -height/2), BaZVector2D.ADD), BaZAnchor2D.DIRECTION_TOP);
-        this.setAnchor(ANCHOR_BOTTOM, position.operation(new BaZVector2D(0, height/2), BaZVector2D.ADD), BaZAnchor2D.DIRECTION_BOTTOM);
-        this.setAnchor(ANCHOR_LEFT, position.operation(new BaZVector2D(-width/2, 0), BaZVector2D.ADD), BaZAnchor2D.DIRECTION_LEFT);
-        this.setAnchor(ANCHOR_RIGHT, position.operation(new BaZVector2D(width/2, 0), BaZVector2D.ADD), BaZAnchor2D.DIRECTION_RIGHT);
+        double x = this.getX();
+        double y = this.getY();
+
+        this.setAnchor(ANCHOR_SLOT_CENTER, x, y, BaZAnchor2D.DIRECTION_FREE);
+        this.setAnchor(ANCHOR_SLOT_TOP, x, y - height/2, BaZAnchor2D.DIRECTION_TOP);
+        this.setAnchor(ANCHOR_SLOT_BOTTOM, x, y + height/2, BaZAnchor2D.DIRECTION_BOTTOM);
+        this.setAnchor(ANCHOR_SLOT_LEFT, x - width/2, y, BaZAnchor2D.DIRECTION_LEFT);
+        this.setAnchor(ANCHOR_SLOT_RIGHT, x + width/2, y, BaZAnchor2D.DIRECTION_RIGHT);
     }
 
     @Override
@@ -138,7 +143,7 @@ public class BaZShapeOval extends BaZAbstractShape {
 
         g.setStroke(STROKE_NORMAL);
 
-        if (textVisible) {
+        if (this.isTextPainted()) {
             g.setColor(textColor);
             BaZLabel.paintCenteredString(this.getText(), this.getX(), this.getY(), g);
         }
@@ -161,4 +166,10 @@ public class BaZShapeOval extends BaZAbstractShape {
         
         g.drawOval(x, y, (int) width, (int) height);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void paintSimplified(Graphics2D g) {
+        g.setColor(background != null ? background : Color.BLACK);
+        g.fillRect((int) (this.getX() - width/2), (int) (this.getY() - height/2), width, height);
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * BaZAnchorTable.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.shape.base;
+
+import java.util.Arrays;
+
+/**
+ * Tabla compacta de las anclas de una figura. Las anclas estándar ocupan
+ * casillas fijas al inicio de la tabla, y las anclas adicionales se ubican en
+ * las casillas siguientes a medida que son creadas.
+ * La posición y la dirección de cada ancla se guardan en arreglos de tipo
+ * <code>double</code> que se actualizan en el lugar, y el objeto
+ * <code>BaZAnchor2D</code> de cada casilla solo se crea cuando es solicitado
+ * y luego se actualiza junto con la casilla.
+ *
+ * Ésta clase no es sincronizada; quien la utilice deberá de gestionar el
+ * acceso concurrente a ella.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public class BaZAnchorTable {
+
+    /** Llaves de las anclas de acuerdo a su casilla. */
+    private String[] keys;
+
+    /** Coordenadas X de la posición de las anclas. */
+    private double[] xs;
+
+    /** Coordenadas Y de la posición de las anclas. */
+    private double[] ys;
+
+    /** Componentes X de la dirección de las anclas. */
+    private double[] dxs;
+
+    /** Componentes Y de la dirección de las anclas. */
+    private double[] dys;
+
+    /** Vectores dirección tal como fueron especificados para cada ancla. */
+    private BaZVector2D[] directions;
+
+    /** Anclas creadas para las casillas que han sido solicitadas. */
+    private BaZAnchor2D[] anchors;
+
+    /** Determina cuáles casillas tienen un ancla asignada. */
+    private boolean[] defined;
+
+    /** Número de casillas de la tabla, incluyendo las estándar. */
+    private int size;
+
+    /**
+     * Construye una tabla de anclas con casillas fijas para las llaves
+     * estándar especificadas, en el mismo orden.
+     *
+     * @param standardKeys
+     *        Llaves de las anclas estándar.
+     */
+    public BaZAnchorTable(String[] standardKeys) {
+        int capacity = Math.max(1, standardKeys.length);
+
+        keys = new String[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        dxs = new double[capacity];
+        dys = new double[capacity];
+        directions = new BaZVector2D[capacity];
+        anchors = new BaZAnchor2D[capacity];
+        defined = new boolean[capacity];
+
+        System.arraycopy(standardKeys, 0, keys, 0, standardKeys.length);
+        size = standardKeys.length;
+    }
+
+    /**
+     * Retorna la casilla del ancla con la llave especificada.
+     *
+     * @param key
+     *        Llave del ancla.
+     *
+     * @return Casilla del ancla, o <code>-1</code> si la llave no está en la tabla.
+     */
+    public int indexOf(String key) {
+        // Las llaves son normalmente las mismas constantes, por lo que se
+        // compara primero por referencia.
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key)
+                return i;
+        }
+
+        if (key == null)
+            return -1;
+
+        for (int i = 0; i < size; i++) {
+            if (key.equals(keys[i]))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Modifica el ancla con la llave especificada, creando una nueva casilla
+     * si la llave no está en la tabla.
+     *
+     * @param key
+     *        Llave del ancla.
+     * @param x
+     *        Coordenada X de la posición del ancla.
+     * @param y
+     *        Coordenada Y de la posición del ancla.
+     * @param direction
+     *        Dirección del ancla.
+     *
+     * @return Casilla del ancla.
+     */
+    public int set(String key, double x, double y, BaZVector2D direction) {
+        int slot = this.indexOf(key);
+
+        if (slot < 0) {
+            if (size == keys.length)
+                this.grow();
+
+            slot = size++;
+            keys[slot] = key;
+        }
+
+        this.set(slot, x, y, direction);
+        return slot;
+    }
+
+    /**
+     * Modifica el ancla de la casilla especificada.
+     *
+     * @param slot
+     *        Casilla del ancla.
+     * @param x
+     *        Coordenada X de la posición del ancla.
+     * @param y
+     *        Coordenada Y de la posición del ancla.
+     * @param direction
+     *        Dirección del ancla.
+     */
+    public void set(int slot, double x, double y, BaZVector2D direction) {
+        xs[slot] = x;
+        ys[slot] = y;
+        dxs[slot] = direction.getX();
+        dys[slot] = direction.getY();
+        directions[slot] = direction;
+        defined[slot] = true;
+
+        BaZAnchor2D anchor = anchors[slot];
+
+        if (anchor != null) {
+            anchor.getPosition().set(x, y);
+            anchor.setDirection(direction);
+        }
+    }
+
+    /**
+     * Retorna el ancla de la casilla especificada. El objeto retornado es el
+     * mismo en cada llamado y se actualiza cada vez que la casilla es modificada.
+     *
+     * @param slot
+     *        Casilla del ancla.
+     *
+     * @return Ancla de la casilla, o <code>null</code> si la casilla no tiene
+     *         un ancla asignada.
+     */
+    public BaZAnchor2D getAnchor(int slot) {
+        if (slot < 0 || !defined[slot])
+            return null;
+
+        BaZAnchor2D anchor = anchors[slot];
+
+        if (anchor == null) {
+            anchor = new BaZAnchor2D(new BaZVector2D(xs[slot], ys[slot]), directions[slot]);
+            anchors[slot] = anchor;
+        }
+
+        return anchor;
+    }
+
+    /**
+     * Retorna la llave del ancla de la casilla especificada.
+     *
+     * @param slot
+     *        Casilla del ancla.
+     *
+     * @return Llave del ancla, o <code>null</code> si la casilla no es válida.
+     */
+    public String getKey(int slot) {
+        return slot < 0 ? null : keys[slot];
+    }
+
+    /**
+     * Retorna la coordenada X de la posición del ancla de la casilla especificada.
+     *
+     * @param slot
+     *        Casilla del ancla.
+     *
+     * @return Coordenada X del ancla.
+     */
+    public double getX(int slot) {
+        return xs[slot];
+    }
+
+    /**
+     * Retorna la coordenada Y de la posición del ancla de la casilla especificada.
+     *
+     * @param slot
+     *        Casilla del ancla.
+     *
+     * @return Coordenada Y del ancla.
+     */
+    public double getY(int slot) {
+        return ys[slot];
+    }
+
+    /**
+     * Retorna la componente X de la dirección del ancla de la casilla especificada.
+     *
+     * @param slot
+     *        Casilla del ancla.
+     *
+     * @return Componente X de la dirección.
+     */
+    public double getDirectionX(int slot) {
+        return dxs[slot];
+    }
+
+    /**
+     * Retorna la componente Y de la dirección del ancla de la casilla especificada.
+     *
+     * @param slot
+     *        Casilla del ancla.
+     *
+     * @return Componente Y de la dirección.
+     */
+    public double getDirectionY(int slot) {
+        return dys[slot];
+    }
+
+    /**
+     * Determina si la casilla especificada tiene un ancla asignada.
+     *
+     * @param slot
+     *        Casilla del ancla.
+     *
+     * @return <code>true</code> si la casilla tiene un ancla.
+     */
+    public boolean isDefined(int slot) {
+        return slot >= 0 && slot < size && defined[slot];
+    }
+
+    /**
+     * Retorna la casilla del ancla más cercana al punto especificado. Las
+     * distancias se comparan al cuadrado, en un solo recorrido de la tabla.
+     *
+     * @param x
+     *        Coordenada X del punto de referencia.
+     * @param y
+     *        Coordenada Y del punto de referencia.
+     *
+     * @return Casilla del ancla más cercana, o <code>-1</code> si la tabla no
+     *         tiene anclas asignadas.
+     */
+    public int closest(double x, double y) {
+        double smallest = Double.MAX_VALUE;
+        int closest = -1;
+
+        for (int i = 0; i < size; i++) {
+            if (!defined[i])
+                continue;
+
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            double d = dx*dx + dy*dy;
+
+            if (d < smallest) {
+                smallest = d;
+                closest = i;
+            }
+        }
+
+        return closest;
+    }
+
+    /**
+     * Retorna el número de casillas de la tabla, incluyendo las estándar que
+     * aún no tienen un ancla asignada.
+     *
+     * @return Número de casillas.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Duplica la capacidad de la tabla.
+     */
+    private void grow() {
+        int capacity = keys.length * 2;
+
+        keys = Arrays.copyOf(keys, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        dxs = Arrays.copyOf(dxs, capacity);
+        dys = Arrays.copyOf(dys, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        anchors = Arrays.copyOf(anchors, capacity);
+        defined = Arrays.copyOf(defined, capacity);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * BaZPositionStore.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.shape.base;
+
+import java.util.Arrays;
+
+/**
+ * Almacén de posiciones de las figuras en arreglos paralelos de coordenadas.
+ * Cada figura ocupa una casilla identificada por un índice, de manera que el
+ * desplazamiento de muchas figuras a la vez se reduce a recorrer arreglos de
+ * tipo <code>double</code> contiguos en memoria, en lugar de recorrer un
+ * objeto <code>BaZVector2D</code> por figura.
+ * Las casillas liberadas se reutilizan en las siguientes asignaciones; las
+ * casillas nuevas se asignan de manera consecutiva, por lo que las figuras de
+ * un mismo subárbol añadido al lienzo ocupan casillas contiguas.
+ *
+ * Ésta clase es sincronizada, pues las figuras pueden ser creadas y removidas
+ * desde hilos diferentes al hilo de eventos. Los arreglos se reemplazan al
+ * crecer, por lo que todos los accesos se hacen sosteniendo el cerrojo.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public class BaZPositionStore {
+
+    /** Capacidad inicial por defecto del almacén. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /** Coordenadas X de las casillas. */
+    private double[] xs;
+
+    /** Coordenadas Y de las casillas. */
+    private double[] ys;
+
+    /** Número de casillas usadas alguna vez, incluyendo las liberadas. */
+    private int size = 0;
+
+    /** Pila de casillas liberadas que pueden ser reutilizadas. */
+    private int[] free;
+
+    /** Número de casillas liberadas en la pila. */
+    private int freeCount = 0;
+
+    /** Arreglo de índices reutilizado por los desplazamientos en lote. */
+    private int[] slotBuffer = new int[0];
+
+    /**
+     * Construye un almacén vacio con la capacidad por defecto.
+     */
+    public BaZPositionStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construye un almacén vacio con la capacidad especificada.
+     *
+     * @param capacity
+     *        Número de casillas inicial del almacén.
+     */
+    public BaZPositionStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        xs = new double[capacity];
+        ys = new double[capacity];
+        free = new int[capacity];
+    }
+
+    /**
+     * Asigna una casilla con las coordenadas especificadas.
+     *
+     * @param x
+     *        Coordenada X inicial.
+     * @param y
+     *        Coordenada Y inicial.
+     *
+     * @return Índice de la casilla asignada.
+     */
+    public synchronized int allocate(double x, double y) {
+        int slot;
+
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+                free = Arrays.copyOf(free, size * 2);
+            }
+
+            slot = size++;
+        }
+
+        xs[slot] = x;
+        ys[slot] = y;
+        return slot;
+    }
+
+    /**
+     * Libera la casilla especificada para que pueda ser reutilizada.
+     *
+     * @param slot
+     *        Índice de la casilla a liberar.
+     */
+    public synchronized void release(int slot) {
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * Retorna la coordenada X de la casilla especificada.
+     *
+     * @param slot
+     *        Índice de la casilla.
+     *
+     * @return Coordenada X.
+     */
+    public synchronized double getX(int slot) {
+        return xs[slot];
+    }
+
+    /**
+     * Retorna la coordenada Y de la casilla especificada.
+     *
+     * @param slot
+     *        Índice de la casilla.
+     *
+     * @return Coordenada Y.
+     */
+    public synchronized double getY(int slot) {
+        return ys[slot];
+    }
+
+    /**
+     * Modifica la coordenada X de la casilla especificada.
+     *
+     * @param slot
+     *        Índice de la casilla.
+     * @param x
+     *        Nueva coordenada X.
+     */
+    public synchronized void setX(int slot, double x) {
+        xs[slot] = x;
+    }
+
+    /**
+     * Modifica la coordenada Y de la casilla especificada.
+     *
+     * @param slot
+     *        Índice de la casilla.
+     * @param y
+     *        Nueva coordenada Y.
+     */
+    public synchronized void setY(int slot, double y) {
+        ys[slot] = y;
+    }
+
+    /**
+     * Modifica las coordenadas de la casilla especificada.
+     *
+     * @param slot
+     *        Índice de la casilla.
+     * @param x
+     *        Nueva coordenada X.
+     * @param y
+     *        Nueva coordenada Y.
+     */
+    public synchronized void set(int slot, double x, double y) {
+        xs[slot] = x;
+        ys[slot] = y;
+    }
+
+    /**
+     * Desplaza la casilla especificada.
+     *
+     * @param slot
+     *        Índice de la casilla.
+     * @param dx
+     *        Diferencial en X.
+     * @param dy
+     *        Diferencial en Y.
+     */
+    public synchronized void shift(int slot, double dx, double dy) {
+        xs[slot] += dx;
+        ys[slot] += dy;
+    }
+
+    /**
+     * Retorna un arreglo de índices de al menos el tamaño especificado, que es
+     * reutilizado entre llamados para evitar crear un arreglo por cada
+     * desplazamiento en lote. Debe ser llamado sosteniendo el cerrojo del
+     * almacén, y el arreglo solo debe usarse mientras se sostenga.
+     *
+     * @param capacity
+     *        Número mínimo de índices.
+     *
+     * @return Arreglo de índices compartido.
+     */
+    public int[] getSlotBuffer(int capacity) {
+        if (slotBuffer.length < capacity)
+            slotBuffer = new int[Math.max(capacity, slotBuffer.length * 2)];
+
+        return slotBuffer;
+    }
+
+    /**
+     * Desplaza las primeras <code>count</code> casillas del arreglo de índices
+     * especificado. Un índice repetido se desplaza una vez por cada aparición.
+     * Los índices se ordenan y las casillas consecutivas se desplazan por
+     * rangos, recorriendo los arreglos de coordenadas de manera contigua. El
+     * orden de los índices en el arreglo especificado se modifica.
+     *
+     * @param slots
+     *        Índices de las casillas a desplazar.
+     * @param count
+     *        Número de índices a tomar del arreglo.
+     * @param dx
+     *        Diferencial en X.
+     * @param dy
+     *        Diferencial en Y.
+     */
+    public synchronized void shift(int[] slots, int count, double dx, double dy) {
+        double[] xs = this.xs;
+        double[] ys = this.ys;
+
+        Arrays.sort(slots, 0, count);
+
+        int i = 0;
+
+        while (i < count) {
+            int from = slots[i];
+            int to = from + 1;
+
+            while (++i < count && slots[i] == to)
+                to++;
+
+            for (int slot = from; slot < to; slot++)
+                xs[slot] += dx;
+
+            for (int slot = from; slot < to; slot++)
+                ys[slot] += dy;
+        }
+    }
+
+    /**
+     * Retorna el número de casillas asignadas.
+     *
+     * @return Número de casillas en uso.
+     */
+    public synchronized int size() {
+        return size - freeCount;
+    }
+}
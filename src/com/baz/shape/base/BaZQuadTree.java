@@ -0,0 +1,435 @@
+/*
+ * BaZQuadTree.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.shape.base;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice espacial en forma de árbol cuaternario (quadtree) que permite
+ * localizar rápidamente los elementos cuyos límites contienen un punto o
+ * interceptan un rectangulo.
+ * Cada elemento es almacenado en el nodo mas profundo que contiene por completo
+ * sus límites, de manera que las consultas solo visitan las ramas del árbol
+ * que se sobreponen con la región consultada. El árbol crece automáticamente
+ * cuando se insertan elementos por fuera de la región que cubre.
+ *
+ * Ésta clase no es sincronizada; quien la utilice deberá de gestionar el
+ * acceso concurrente a ella.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public class BaZQuadTree<T> {
+
+    /** Número máximo de elementos que contiene un nodo antes de dividirse. */
+    public static final int DEFAULT_NODE_CAPACITY = 8;
+
+    /** Tamaño mínimo de un nodo, los nodos de éste tamaño no se dividen. */
+    public static final double DEFAULT_MIN_NODE_SIZE = 8;
+
+    /** Tamaño inicial de la región que cubre el árbol. */
+    private static final double INITIAL_SIZE = 1024;
+
+    /** Nodo raíz del árbol. */
+    private Node<T> root = null;
+
+    /** Elementos contenidos en el árbol de acuerdo a su valor. */
+    private Map<T, Item<T>> items = new IdentityHashMap<T, Item<T>>();
+
+    /** Número máximo de elementos por nodo. */
+    private int nodeCapacity = DEFAULT_NODE_CAPACITY;
+
+    /** Tamaño mínimo para los nodos del árbol. */
+    private double minNodeSize = DEFAULT_MIN_NODE_SIZE;
+
+    /**
+     * Construye un árbol cuaternario vacio.
+     */
+    public BaZQuadTree() {}
+
+    /**
+     * Construye un árbol cuaternario vacio con la capacidad por nodo especificada.
+     *
+     * @param nodeCapacity
+     *        Número máximo de elementos por nodo antes de dividirse.
+     */
+    public BaZQuadTree(int nodeCapacity) {
+        this.nodeCapacity = Math.max(1, nodeCapacity);
+    }
+
+    /**
+     * Inserta o actualiza el elemento especificado con los límites dados.
+     *
+     * @param value
+     *        Elemento a ser insertado.
+     * @param x
+     *        Coordenada X del punto inicial de los límites del elemento.
+     * @param y
+     *        Coordenada Y del punto inicial de los límites del elemento.
+     * @param width
+     *        Ancho de los límites del elemento.
+     * @param height
+     *        Alto de los límites del elemento.
+     */
+    public void put(T value, double x, double y, double width, double height) {
+        if (width < 0) {
+            x += width;
+            width = -width;
+        }
+
+        if (height < 0) {
+            y += height;
+            height = -height;
+        }
+
+        Item<T> item = items.get(value);
+
+        if (item != null) {
+            if (item.x1 == x && item.y1 == y && item.x2 == x + width && item.y2 == y + height)
+                return;
+
+            item.node.items.remove(item);
+        } else {
+            item = new Item<T>(value);
+            items.put(value, item);
+        }
+
+        item.x1 = x;
+        item.y1 = y;
+        item.x2 = x + width;
+        item.y2 = y + height;
+
+        this.insert(item);
+    }
+
+    /**
+     * Remueve el elemento especificado del árbol.
+     *
+     * @param value
+     *        Elemento a ser removido.
+     *
+     * @return <code>true</code> si el elemento existía y fue removido, de lo
+     *         contrario <code>false</code>.
+     */
+    public boolean remove(T value) {
+        Item<T> item = items.remove(value);
+
+        if (item == null)
+            return false;
+
+        item.node.items.remove(item);
+        item.node = null;
+        return true;
+    }
+
+    /**
+     * Determina si el elemento especificado se encuentra en el árbol.
+     *
+     * @param value
+     *        Elemento a buscar.
+     *
+     * @return <code>true</code> si el elemento está en el árbol.
+     */
+    public boolean contains(T value) {
+        return items.containsKey(value);
+    }
+
+    /**
+     * Retorna el número de elementos contenidos en el árbol.
+     *
+     * @return Número de elementos del árbol.
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Elimina todos los elementos del árbol.
+     */
+    public void clear() {
+        items.clear();
+        root = null;
+    }
+
+    /**
+     * Añade a la lista especificada todos los elementos cuyos límites contienen
+     * el punto dado.
+     *
+     * @param x
+     *        Coordenada X del punto de referencia.
+     * @param y
+     *        Coordenada Y del punto de referencia.
+     * @param result
+     *        Lista donde serán añadidos los elementos encontrados.
+     *
+     * @return La misma lista especificada.
+     */
+    public List<T> query(double x, double y, List<T> result) {
+        Node<T> node = root;
+
+        while (node != null) {
+            collect(node, x, y, x, y, result);
+
+            if (node.children == null)
+                break;
+
+            node = node.children[node.quadrant(x, y)];
+
+            if (node != null && !node.contains(x, y, x, y))
+                break;
+        }
+
+        return result;
+    }
+
+    /**
+     * Añade a la lista especificada todos los elementos cuyos límites
+     * interceptan el rectangulo dado.
+     *
+     * @param x
+     *        Coordenada X del punto inicial del rectangulo.
+     * @param y
+     *        Coordenada Y del punto inicial del rectangulo.
+     * @param width
+     *        Ancho del rectangulo.
+     * @param height
+     *        Alto del rectangulo.
+     * @param result
+     *        Lista donde serán añadidos los elementos encontrados.
+     *
+     * @return La misma lista especificada.
+     */
+    public List<T> query(double x, double y, double width, double height, List<T> result) {
+        if (width < 0) {
+            x += width;
+            width = -width;
+        }
+
+        if (height < 0) {
+            y += height;
+            height = -height;
+        }
+
+        if (root != null)
+            query(root, x, y, x + width, y + height, result);
+
+        return result;
+    }
+
+    /**
+     * Recorre de manera recursiva los nodos que interceptan el rectangulo
+     * especificado.
+     */
+    private void query(Node<T> node, double x1, double y1, double x2, double y2, List<T> result) {
+        collect(node, x1, y1, x2, y2, result);
+
+        if (node.children == null)
+            return;
+
+        for (int i = 0; i < 4; i++) {
+            Node<T> child = node.children[i];
+
+            if (child != null && child.intersects(x1, y1, x2, y2))
+                query(child, x1, y1, x2, y2, result);
+        }
+    }
+
+    /**
+     * Añade a la lista los elementos del nodo que interceptan el rectangulo.
+     */
+    private static <T> void collect(Node<T> node, double x1, double y1, double x2, double y2, List<T> result) {
+        List<Item<T>> nodeItems = node.items;
+
+        for (int i = 0; i < nodeItems.size(); i++) {
+            Item<T> item = nodeItems.get(i);
+
+            if (item.x1 <= x2 && item.x2 >= x1 && item.y1 <= y2 && item.y2 >= y1)
+                result.add(item.value);
+        }
+    }
+
+    /**
+     * Inserta el elemento especificado en el nodo más profundo que lo contiene,
+     * haciendo crecer el árbol si es necesario.
+     */
+    private void insert(Item<T> item) {
+        if (root == null) {
+            double cx = (item.x1 + item.x2) * 0.5;
+            double cy = (item.y1 + item.y2) * 0.5;
+            double size = INITIAL_SIZE;
+
+            while (size < item.x2 - item.x1 || size < item.y2 - item.y1)
+                size *= 2;
+
+            root = new Node<T>(Math.floor(cx - size * 0.5), Math.floor(cy - size * 0.5), size);
+        }
+
+        while (!root.contains(item.x1, item.y1, item.x2, item.y2))
+            this.grow(item);
+
+        Node<T> node = root;
+
+        while (true) {
+            if (node.children == null) {
+                node.items.add(item);
+                item.node = node;
+
+                if (node.items.size() > nodeCapacity && node.size > minNodeSize)
+                    this.split(node);
+
+                return;
+            }
+
+            int quadrant = node.quadrantContaining(item);
+
+            if (quadrant < 0) {
+                node.items.add(item);
+                item.node = node;
+                return;
+            }
+
+            if (node.children[quadrant] == null)
+                node.children[quadrant] = node.createChild(quadrant);
+
+            node = node.children[quadrant];
+        }
+    }
+
+    /**
+     * Divide el nodo especificado en cuatro cuadrantes y reubica en ellos los
+     * elementos que caben completamente en alguno.
+     */
+    private void split(Node<T> node) {
+        node.children = createChildrenArray();
+
+        List<Item<T>> old = node.items;
+        node.items = new ArrayList<Item<T>>();
+
+        for (int i = 0; i < old.size(); i++) {
+            Item<T> item = old.get(i);
+            int quadrant = node.quadrantContaining(item);
+
+            if (quadrant < 0) {
+                node.items.add(item);
+                continue;
+            }
+
+            if (node.children[quadrant] == null)
+                node.children[quadrant] = node.createChild(quadrant);
+
+            Node<T> child = node.children[quadrant];
+            child.items.add(item);
+            item.node = child;
+        }
+
+        for (int i = 0; i < 4; i++) {
+            Node<T> child = node.children[i];
+
+            if (child != null && child.items.size() > nodeCapacity && child.size > minNodeSize)
+                this.split(child);
+        }
+    }
+
+    /**
+     * Duplica el tamaño de la región cubierta por el árbol en dirección al
+     * elemento especificado. La raíz actual se convierte en un cuadrante de
+     * la nueva raíz.
+     */
+    private void grow(Item<T> item) {
+        boolean left = item.x1 < root.x;
+        boolean up = item.y1 < root.y;
+
+        double x = left ? root.x - root.size : root.x;
+        double y = up ? root.y - root.size : root.y;
+
+        Node<T> newRoot = new Node<T>(x, y, root.size * 2);
+        newRoot.children = createChildrenArray();
+        newRoot.children[(left ? 1 : 0) + (up ? 2 : 0)] = root;
+
+        root = newRoot;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Node<T>[] createChildrenArray() {
+        return new Node[4];
+    }
+
+    /**
+     * Elemento almacenado en el árbol junto con sus límites.
+     */
+    private static class Item<T> {
+        final T value;
+        double x1, y1, x2, y2;
+        Node<T> node;
+
+        Item(T value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Nodo del árbol. Cubre una región cuadrada y contiene los elementos que
+     * no caben completamente en ninguno de sus cuadrantes.
+     */
+    private static class Node<T> {
+        final double x, y, size;
+        List<Item<T>> items = new ArrayList<Item<T>>();
+        Node<T>[] children = null;
+
+        Node(double x, double y, double size) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+
+        boolean contains(double x1, double y1, double x2, double y2) {
+            return x1 >= x && y1 >= y && x2 <= x + size && y2 <= y + size;
+        }
+
+        boolean intersects(double x1, double y1, double x2, double y2) {
+            return x1 <= x + size && x2 >= x && y1 <= y + size && y2 >= y;
+        }
+
+        /** Cuadrante que contiene el punto: 0 y 1 arriba, 2 y 3 abajo. */
+        int quadrant(double px, double py) {
+            double half = size * 0.5;
+            return (px < x + half ? 0 : 1) + (py < y + half ? 0 : 2);
+        }
+
+        /** Cuadrante que contiene por completo al elemento, o -1 si no existe. */
+        int quadrantContaining(Item<T> item) {
+            double mx = x + size * 0.5;
+            double my = y + size * 0.5;
+
+            int column;
+            if (item.x2 < mx)
+                column = 0;
+            else if (item.x1 >= mx)
+                column = 1;
+            else
+                return -1;
+
+            int row;
+            if (item.y2 < my)
+                row = 0;
+            else if (item.y1 >= my)
+                row = 2;
+            else
+                return -1;
+
+            return column + row;
+        }
+
+        Node<T> createChild(int quadrant) {
+            double half = size * 0.5;
+            return new Node<T>(x + ((quadrant & 1) != 0 ? half : 0), y + ((quadrant & 2) != 0 ? half : 0), half);
+        }
+    }
+}
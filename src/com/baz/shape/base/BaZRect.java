@@ -11,6 +11,9 @@ import java.awt.Rectangle;
 /**
  * Ésta clase permite especificar un rectangulo y realizar operaciones sobre
  * éste mismo, tales como, unión o intercepción con otros figuras.
+ * Las coordenadas se guardan con precisión doble, y las operaciones terminadas
+ * en <code>Into</code> guardan su resultado en un rectangulo destino sin crear
+ * nuevos objetos.
  *
  * @author JpBaena
  * @version 0.1
@@ -18,8 +21,22 @@ import java.awt.Rectangle;
  */
 public class BaZRect {
 
-    /** Rectangulo de clase. */
-    private Rectangle rect;
+    /** Coordenada X del punto inicial del rectangulo. */
+    private double x;
+
+    /** Coordenada Y del punto inicial del rectangulo. */
+    private double y;
+
+    /** Ancho del rectangulo. */
+    private double width;
+
+    /** Alto del rectangulo. */
+    private double height;
+
+    /**
+     * Construye un rectangulo vacio ubicado en el origen.
+     */
+    public BaZRect() {}
 
     /**
      * Construye un objeto <code>BaZRect</code> a partir del rectangulo especificado.
@@ -28,7 +45,17 @@ public class BaZRect {
      *        Rectangulo con el que será construido el objeto <code>BaZRect</code>
      */
     public BaZRect(Rectangle rect) {
-        this.rect = rect;
+        this.set(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    /**
+     * Construye una copia del objeto <code>BaZRect</code> especificado.
+     *
+     * @param rect
+     *        Rectangulo a copiar.
+     */
+    public BaZRect(BaZRect rect) {
+        this.set(rect.x, rect.y, rect.width, rect.height);
     }
 
     /**
@@ -55,7 +82,7 @@ public class BaZRect {
             dy = -dy;
         }
 
-        this.rect = new Rectangle((int)x, (int)y, (int)dx, (int)dy);
+        this.set(x, y, dx, dy);
     }
 
     /**
@@ -109,7 +136,29 @@ public class BaZRect {
         double dx = Math.max(min_dx, Math.abs(v1.getX() - v2.getX()));
         double dy = Math.max(min_dy, Math.abs(v1.getY() - v2.getY()));
 
-        this.rect = new Rectangle((int)x, (int)y, (int)dx, (int)dy);
+        this.set(x, y, dx, dy);
+    }
+
+    /**
+     * Modifica la ubicación y dimensiones del rectangulo.
+     *
+     * @param x
+     *        Coordenada x del punto inicial del rectangulo.
+     * @param y
+     *        Coordenada y de punto inicial del rectangulo.
+     * @param width
+     *        Ancho del rectangulo.
+     * @param height
+     *        Alto del rectangulo.
+     *
+     * @return Éste mismo rectangulo.
+     */
+    public BaZRect set(double x, double y, double width, double height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        return this;
     }
 
     /**
@@ -122,16 +171,79 @@ public class BaZRect {
      * @return Rectangulo resultante de la unión.
      */
     public BaZRect union(BaZRect rect) {
-        return new BaZRect((Rectangle) this.getRectangle().createUnion(rect.getRectangle()));
+        return this.unionInto(rect, new BaZRect());
     }
 
     /**
-     * Retorna el rectangulo de la clase.
+     * Une el rectangulo fuente con el rectangulo especificado y guarda el
+     * resultado en el rectangulo destino, sin crear nuevos objetos. El destino
+     * puede ser éste mismo rectangulo o el rectangulo especificado.
+     *
+     * @param rect
+     *        Rectangulo de referencia para realizar al unión.
+     * @param dest
+     *        Rectangulo donde se guarda el resultado.
      *
-     * @return  Rectangulo de clase.
+     * @return El rectangulo destino.
+     */
+    public BaZRect unionInto(BaZRect rect, BaZRect dest) {
+        double x1 = Math.min(x, rect.x);
+        double y1 = Math.min(y, rect.y);
+        double x2 = Math.max(x + width, rect.x + rect.width);
+        double y2 = Math.max(y + height, rect.y + rect.height);
+
+        return dest.set(x1, y1, x2 - x1, y2 - y1);
+    }
+
+    /**
+     * Retorna un rectangulo de coordenadas enteras que contiene por completo
+     * a éste rectangulo. Cada llamado crea un nuevo objeto.
+     *
+     * @return  Rectangulo de coordenadas enteras.
      */
     public Rectangle getRectangle() {
-        return rect;
+        int x1 = (int) Math.floor(x);
+        int y1 = (int) Math.floor(y);
+        int x2 = (int) Math.ceil(x + width);
+        int y2 = (int) Math.ceil(y + height);
+
+        return new Rectangle(x1, y1, x2 - x1, y2 - y1);
+    }
+
+    /**
+     * Retorna la coordenada X del punto inicial del rectangulo.
+     *
+     * @return Coordenada X del rectangulo.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Retorna la coordenada Y del punto inicial del rectangulo.
+     *
+     * @return Coordenada Y del rectangulo.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Retorna el ancho del rectangulo.
+     *
+     * @return Ancho del rectangulo.
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Retorna el alto del rectangulo.
+     *
+     * @return Alto del rectangulo.
+     */
+    public double getHeight() {
+        return height;
     }
 
     /**
@@ -147,7 +259,7 @@ public class BaZRect {
      *         contrario retorna <code>false</code>.
      */
     public static boolean getIntersect(BaZRect r1, BaZRect r2) {
-        return r1.getRectangle().intersects(r2.getRectangle());
+        return r1.intersects(r2.x, r2.y, r2.width, r2.height);
     }
 
     /**
@@ -159,7 +271,63 @@ public class BaZRect {
      * @return
      */
     public boolean intersect(BaZRect r1) {
-        return this.getRectangle().intersects(r1.getRectangle());
+        return this.intersects(r1.x, r1.y, r1.width, r1.height);
+    }
+
+    /**
+     * Determina si el rectangulo fuente y el rectangulo especificado tienen una
+     * intersección diferente de vacia. Un rectangulo sin área no intercepta a
+     * ningún otro.
+     *
+     * @param x
+     *        Coordenada X del punto inicial del rectangulo.
+     * @param y
+     *        Coordenada Y del punto inicial del rectangulo.
+     * @param width
+     *        Ancho del rectangulo.
+     * @param height
+     *        Alto del rectangulo.
+     *
+     * @return <code>true</code> si la intersección es diferente de vacia, de lo
+     *         contrario retorna <code>false</code>.
+     */
+    public boolean intersects(double x, double y, double width, double height) {
+        if (this.width <= 0 || this.height <= 0 || width <= 0 || height <= 0)
+            return false;
+
+        return x < this.x + this.width && this.x < x + width
+                && y < this.y + this.height && this.y < y + height;
+    }
+
+    /**
+     * Determina si el rectangulo fuente y el rectangulo especificado tienen una
+     * intersección diferente de vacia.
+     *
+     * @param rect
+     *        Rectangulo de referencia.
+     *
+     * @return <code>true</code> si la intersección es diferente de vacia, de lo
+     *         contrario retorna <code>false</code>.
+     */
+    public boolean intersects(Rectangle rect) {
+        return this.intersects(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    /**
+     * Determina si el rectangulo fuente contiene al punto de coordenadas
+     * especificadas. El borde inferior y el borde derecho no hacen parte del
+     * rectangulo.
+     *
+     * @param x
+     *        Coordenada X del punto de referencia.
+     * @param y
+     *        Coordenada Y del punto de referencia.
+     *
+     * @return <code>true</code> si el punto está contenido en el rectangulo,
+     * de lo contrario <code>false</code>;
+     */
+    public boolean containsPoint(double x, double y) {
+        return x >= this.x && y >= this.y && x < this.x + width && y < this.y + height;
     }
 
     /**
@@ -174,7 +342,7 @@ public class BaZRect {
      * de lo contrario <code>false</code>;
      */
     public boolean contains(double x, double y) {
-        return rect.contains(x, y);
+        return this.containsPoint(x, y);
     }
 
     /**
@@ -187,7 +355,7 @@ public class BaZRect {
      * de lo contrario <code>false</code>;
      */
     public boolean contains(Point p) {
-        return rect.contains(p);
+        return this.containsPoint(p.x, p.y);
     }
 
     /**
@@ -196,17 +364,14 @@ public class BaZRect {
      * @param f
      */
     public void inset(double f) {
-        rect.x += f;
-        rect.y += f;
-        rect.width -= 2*f;
-        rect.height -= 2*f;
+        x += f;
+        y += f;
+        width -= 2*f;
+        height -= 2*f;
     }
 
     @Override
     public String toString() {
-        if (rect == null)
-            return super.toString();
-
-        return rect.toString();
+        return getClass().getName() + "[x=" + x + ",y=" + y + ",width=" + width + ",height=" + height + "]";
     }
 }
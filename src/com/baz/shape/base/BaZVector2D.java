@@ -118,6 +118,36 @@ public class BaZVector2D implements Cloneable, Serializable {
         this.y = y;
     }
 
+    /**
+     * Modifica las coordenadas del vector.
+     *
+     * @param x
+     *        Coordenada X del vector.
+     * @param y
+     *        Coordenada Y del vector.
+     *
+     * @return Esta misma instancia con las nuevas coordenadas.
+     */
+    public BaZVector2D set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Copia las coordenadas del vector especificado en éste vector.
+     *
+     * @param v
+     *        Vector del que se copian las coordenadas.
+     *
+     * @return Esta misma instancia con las coordenadas del vector especificado.
+     */
+    public BaZVector2D set(BaZVector2D v) {
+        this.x = v.x;
+        this.y = v.y;
+        return this;
+    }
+
     //*** END GETTERS AND SETTERS METHODS ***
 
     /**
@@ -227,6 +257,27 @@ public class BaZVector2D implements Cloneable, Serializable {
         return this;
     }
 
+    /**
+     * Rota el vector en el ángulo cuyo coseno y seno son especificados. Permite
+     * rotar muchas veces en el mismo ángulo sin calcular de nuevo el coseno y
+     * el seno.
+     *
+     * @param cos
+     *        Coseno del ángulo a rotar el vector.
+     * @param sin
+     *        Seno del ángulo a rotar el vector.
+     *
+     * @return Esta instancia rotada.
+     */
+    public BaZVector2D rotate(double cos, double sin) {
+        double rx = cos*x - sin*y;
+        double ry = sin*x + cos*y;
+
+        x = rx;
+        y = ry;
+        return this;
+    }
+
     /**
      * Retorna un nuevo vector normalizado a partir del vector fuente.
      *
@@ -241,6 +292,26 @@ public class BaZVector2D implements Cloneable, Serializable {
             return new BaZVector2D(x/l, y/l);
     }
 
+    /**
+     * Normaliza éste vector sin crear un nuevo objeto. Si la longitud del
+     * vector es cero, éste queda en las coordenadas [0,0].
+     *
+     * @return Esta misma instancia normalizada.
+     */
+    public BaZVector2D normalizeSelf() {
+        double l = this.lenght();
+
+        if (l == 0) {
+            x = 0;
+            y = 0;
+        } else {
+            x /= l;
+            y /= l;
+        }
+
+        return this;
+    }
+
     /**
      * Clona la instancia actual
      *
@@ -278,6 +349,38 @@ public class BaZVector2D implements Cloneable, Serializable {
         return this;
     }
 
+    /**
+     * Suma el vector especificado a éste vector y guarda el resultado en el
+     * vector destino, sin crear nuevos objetos. El destino puede ser éste
+     * mismo vector o el vector especificado.
+     *
+     * @param v2
+     *        Vector como segundo término de la suma.
+     * @param dest
+     *        Vector donde se guarda el resultado.
+     *
+     * @return El vector destino.
+     */
+    public BaZVector2D addInto(BaZVector2D v2, BaZVector2D dest) {
+        return dest.set(x + v2.x, y + v2.y);
+    }
+
+    /**
+     * Resta el vector especificado a éste vector y guarda el resultado en el
+     * vector destino, sin crear nuevos objetos. El destino puede ser éste
+     * mismo vector o el vector especificado.
+     *
+     * @param v2
+     *        Vector como segundo término de la resta.
+     * @param dest
+     *        Vector donde se guarda el resultado.
+     *
+     * @return El vector destino.
+     */
+    public BaZVector2D subInto(BaZVector2D v2, BaZVector2D dest) {
+        return dest.set(x - v2.x, y - v2.y);
+    }
+
     /**
      * Éste método permite realizar productos básicos sobre vectores.
      * Éstas productos son producto punto y producto cruz, tomando como primer
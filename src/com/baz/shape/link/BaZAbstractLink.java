@@ -80,6 +80,16 @@ public abstract class BaZAbstractLink {
     protected transient BaZVector2D startWithOffset = null;
     protected transient BaZVector2D endWithOffset = null;
 
+    /** Vectores reutilizados para calcular las posiciones con offset. */
+    private transient BaZVector2D startOffsetBuffer = null;
+    private transient BaZVector2D endOffsetBuffer = null;
+
+    /** Rectangulo que contiene el enlace, calculado en el último llamado a <code>update()</code>. */
+    protected transient BaZRect frame = null;
+
+    /** Versión de los parámetros del enlace, se incrementa cada vez que alguno cambia. */
+    protected transient long version = 0;
+
     /**
      * Constructor vacio.
      */
@@ -118,11 +128,30 @@ public abstract class BaZAbstractLink {
         startWithOffset = startPosition;
         endWithOffset = endPosition;
 
-        if (startPosition != null && startOffset != null)
-            startWithOffset = startPosition.operation(startOffset, BaZVector2D.ADD);
+        if (startPosition != null && startOffset != null) {
+            if (startOffsetBuffer == null)
+                startOffsetBuffer = new BaZVector2D();
+
+            startWithOffset = startPosition.addInto(startOffset, startOffsetBuffer);
+        }
+
+        if (endPosition != null && endOffset != null) {
+            if (endOffsetBuffer == null)
+                endOffsetBuffer = new BaZVector2D();
 
-        if (endPosition != null && endOffset != null)
-            endWithOffset = endPosition.operation(endOffset, BaZVector2D.ADD);
+            endWithOffset = endPosition.addInto(endOffset, endOffsetBuffer);
+        }
+    }
+
+    /**
+     * Retorna la versión de los parámetros del enlace que no dependen de las
+     * anclas, como la dirección, los offsets o la planaridad. Éste valor
+     * cambia cada vez que alguno de ellos es modificado.
+     *
+     * @return Versión actual de los parámetros del enlace.
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -179,7 +208,11 @@ public abstract class BaZAbstractLink {
      *        Posición para el punto inicial del enlace.
      */
     public void setStartPosition(BaZVector2D startPosition) {
-        this.startPosition = startPosition.copy();
+        if (this.startPosition == null)
+            this.startPosition = startPosition.copy();
+        else
+            this.startPosition.set(startPosition);
+
         this.computeOffset();
     }
 
@@ -193,7 +226,12 @@ public abstract class BaZAbstractLink {
      *        Coordenada Y para la posición inicial del enlace.
      */
     public void setStartPosition(double x, double y) {
-        this.setStartPosition(new BaZVector2D(x, y));
+        if (this.startPosition == null)
+            this.startPosition = new BaZVector2D(x, y);
+        else
+            this.startPosition.set(x, y);
+
+        this.computeOffset();
     }
     
     /**
@@ -212,7 +250,11 @@ public abstract class BaZAbstractLink {
      *        Posición final para el enlace.
      */
     public void setEndPosition(BaZVector2D endPosition) {
-        this.endPosition = endPosition.copy();
+        if (this.endPosition == null)
+            this.endPosition = endPosition.copy();
+        else
+            this.endPosition.set(endPosition);
+
         this.computeOffset();
     }
 
@@ -226,7 +268,12 @@ public abstract class BaZAbstractLink {
      *        Coordenada Y para la posición del enlace.
      */
     public void setEndPosition(double x, double y) {
-        this.setEndPosition(new BaZVector2D(x, y));
+        if (this.endPosition == null)
+            this.endPosition = new BaZVector2D(x, y);
+        else
+            this.endPosition.set(x, y);
+
+        this.computeOffset();
     }
 
     /**
@@ -295,6 +342,7 @@ public abstract class BaZAbstractLink {
      */
     public void setDirection(BaZVector2D direction) {
         this.direction = direction;
+        version++;
     }
 
     /**
@@ -333,6 +381,7 @@ public abstract class BaZAbstractLink {
      */
     public void setStartOffset(BaZVector2D startOffset) {
         this.startOffset = startOffset;
+        version++;
         this.computeOffset();
     }
 
@@ -353,6 +402,7 @@ public abstract class BaZAbstractLink {
      */
     public void setEndOffset(BaZVector2D endOffset) {
         this.endOffset = endOffset;
+        version++;
         this.computeOffset();
     }
 
@@ -390,6 +440,7 @@ public abstract class BaZAbstractLink {
      */
     public void setStartTangentOffset(double startTangentOffset) {
         this.startTangentOffset = startTangentOffset;
+        version++;
     }
 
     /**
@@ -409,6 +460,7 @@ public abstract class BaZAbstractLink {
      */
     public void setEndTangentOffset(double endTangentOffset) {
         this.endTangentOffset = endTangentOffset;
+        version++;
     }
 
     /**
@@ -428,6 +480,7 @@ public abstract class BaZAbstractLink {
      */
     public void setFlatness(double flatness) {
         this.flatness = flatness;
+        version++;
     }
 
     /**
@@ -469,6 +522,9 @@ public abstract class BaZAbstractLink {
      *        entre <code>false</code>.
      */
     public void setHasLoop(boolean hasLoop) {
+        if (this.hasLoop != hasLoop)
+            version++;
+
         this.hasLoop = hasLoop;
     }
 
@@ -498,6 +554,9 @@ public abstract class BaZAbstractLink {
      *        Texto para el centro del enlace.
      */
     public void setLabel(String text) {
+        if (text == null ? this.text.getText() != null : !text.equals(this.text.getText()))
+            version++;
+
         this.text.setText(text);
     }
 
@@ -508,7 +567,7 @@ public abstract class BaZAbstractLink {
      *        Color para el texto del enlace.
      */
     public void setLabelColor(Color labelColor) {
-        text.setColor(color);
+        text.setColor(labelColor);
     }
 
     /**
@@ -534,11 +593,17 @@ public abstract class BaZAbstractLink {
     }
 
     /**
-     * Retorna el rectangulo que contiene la figura del enlace.
+     * Retorna el rectangulo que contiene la figura del enlace. Si el enlace
+     * guardó su frame en el último llamado a <code>update()</code> éste es
+     * retornado, de lo contrario se calcula a partir de los puntos inicial y
+     * final del enlace.
      *
      * @return Rectangulo que contiene la figura del enlace.
      */
     public BaZRect getFrame() {
+        if (frame != null)
+            return frame;
+
         return new BaZRect(startPosition, endPosition);
     }
 
@@ -5,8 +5,11 @@
  */
 package com.baz.shape.link;
 
+import com.baz.canvas.BaZCanvas;
 import com.baz.shape.base.BaZVector2D;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.geom.Path2D;
 
 /**
  * Esta clase especifica un flecha en característica y forma que puede ser
@@ -30,6 +33,27 @@ public class BaZArrow {
     /** Angulo de las puntas de la flecha. */
     protected double angle = 45;
 
+    /** Determina si el ancla fue creada por la flecha y puede ser modificada por ésta. */
+    private boolean ownAnchor = false;
+
+    /** Vector reutilizado para calcular las puntas de la flecha. */
+    private transient BaZVector2D tip = null;
+
+    /** Puntas de la flecha calculadas en el último llamado a <code>update()</code>. */
+    private transient Path2D.Double barbs = null;
+
+    /** Ángulo para el que fueron calculados el coseno y el seno guardados. */
+    private transient double cachedAngle = Double.NaN;
+
+    /** Coseno de la mitad del ángulo de las puntas. */
+    private transient double angleCos;
+
+    /** Seno de la mitad del ángulo de las puntas. */
+    private transient double angleSin;
+
+    /* --- Valores con los que fueron calculadas las puntas de la flecha --- */
+    private transient double barbsX, barbsY, barbsDx, barbsDy, barbsLength, barbsAngle;
+
     /**
      * Constructor vacio.
      */
@@ -45,7 +69,11 @@ public class BaZArrow {
      *        Coordenada Y del ancla de la flecha.
      */
     public void setAnchor(double x, double y) {
-        anchor = new BaZVector2D(x, y);
+        if (anchor == null || !ownAnchor) {
+            anchor = new BaZVector2D(x, y);
+            ownAnchor = true;
+        } else
+            anchor.set(x, y);
     }
 
     /**
@@ -57,6 +85,7 @@ public class BaZArrow {
      */
     public void setAnchor(BaZVector2D anchor) {
         this.anchor = anchor;
+        this.ownAnchor = false;
     }
 
     /**
@@ -81,6 +110,22 @@ public class BaZArrow {
             this.direction = null;
     }
 
+    /**
+     * Modifica la dirección de la flecha a partir de las componentes
+     * especificadas, reutilizando el vector dirección actual.
+     *
+     * @param dx
+     *        Componente X de la dirección.
+     * @param dy
+     *        Componente Y de la dirección.
+     */
+    public void setDirection(double dx, double dy) {
+        if (direction == null)
+            direction = new BaZVector2D(dx, dy);
+        else
+            direction.set(dx, dy);
+    }
+
     /**
      * Retorna el vector dirección de la flecha.
      *
@@ -126,6 +171,67 @@ public class BaZArrow {
         return this.angle;
     }
 
+    /**
+     * Calcula las puntas de la flecha a partir del ancla, la dirección, la
+     * longitud y el ángulo actuales. Es llamado cuando cambia la geometría del
+     * enlace, de manera que al pintar solo se dibuja el resultado.
+     */
+    public void update() {
+        if (direction == null || anchor == null) {
+            barbs = null;
+            return;
+        }
+
+        if (angle != cachedAngle) {
+            double radians = Math.toRadians(angle*0.5);
+            angleCos = Math.cos(radians);
+            angleSin = Math.sin(radians);
+            cachedAngle = angle;
+        }
+
+        if (tip == null)
+            tip = new BaZVector2D();
+
+        if (barbs == null)
+            barbs = new Path2D.Double(Path2D.WIND_NON_ZERO, 4);
+        else
+            barbs.reset();
+
+        double x = anchor.getX();
+        double y = anchor.getY();
+
+        // Cada punta es un subcamino independiente para que el trazo no
+        // forme una unión en el ancla.
+        BaZVector2D dir = tip.set(direction).setLength(length);
+        dir.rotate(angleCos, angleSin);
+        barbs.moveTo(x, y);
+        barbs.lineTo(x + dir.getX(), y + dir.getY());
+
+        dir.set(direction).setLength(length);
+        dir.rotate(angleCos, -angleSin);
+        barbs.moveTo(x, y);
+        barbs.lineTo(x + dir.getX(), y + dir.getY());
+
+        barbsX = x;
+        barbsY = y;
+        barbsDx = direction.getX();
+        barbsDy = direction.getY();
+        barbsLength = length;
+        barbsAngle = angle;
+    }
+
+    /**
+     * Determina si las puntas calculadas corresponden a la geometría actual de
+     * la flecha. El ancla puede ser un vector compartido, por lo que se
+     * comparan los valores con los que fueron calculadas.
+     */
+    private boolean isUpdated() {
+        return barbs != null && direction != null && anchor != null
+                && barbsX == anchor.getX() && barbsY == anchor.getY()
+                && barbsDx == direction.getX() && barbsDy == direction.getY()
+                && barbsLength == length && barbsAngle == angle;
+    }
+
     /**
      * Dibuja el link, con las característicadas dadas, en el <code>Graphics</code>
      * especificad.
@@ -136,13 +242,15 @@ public class BaZArrow {
         if (direction == null || anchor == null)
             return;
 
-        BaZVector2D dir = direction.copy();
-        dir.setLength(length);
+        if (!this.isUpdated()) {
+            // Los hilos de pintado del lienzo no modifican la flecha.
+            if (BaZCanvas.isRenderThread())
+                return;
 
-        dir.rotate(angle*0.5);
-        g.drawLine((int) anchor.getX(), (int) anchor.getY(), (int)(anchor.getX() + dir.getX()), (int) (anchor.getY() + dir.getY()));
+            this.update();
+        }
 
-        dir.rotate(-angle);
-        g.drawLine((int) anchor.getX(), (int) anchor.getY(), (int)(anchor.getX() + dir.getX()), (int) (anchor.getY() + dir.getY()));
+        if (barbs != null)
+            ((Graphics2D) g).draw(barbs);
     }
 }
@@ -5,14 +5,17 @@
  */
 package com.baz.shape.link;
 
+import com.baz.shape.base.BaZRect;
 import com.baz.shape.base.BaZVector2D;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Shape;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.Line2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.QuadCurve2D;
+import java.awt.geom.Rectangle2D;
 
 /**
  * Ésta clase genera un link en forma de arco, que puede ser modificado por
@@ -25,6 +28,26 @@ import java.awt.geom.QuadCurve2D;
  * @since 1.6
  */
 public class BaZLinkArc extends BaZAbstractLink {
+
+    /** Margen alrededor de la curva que se incluye en el frame del enlace. Cubre
+     * las puntas de flecha y la tolerancia de selección de la línea. */
+    protected static final double FRAME_MARGIN = 10;
+
+    /** Distancia máxima por defecto entre un punto y la curva para considerar
+     * que el punto está sobre el enlace. */
+    public static final double DEFAULT_HIT_TOLERANCE = 4;
+
+    /** Máxima distancia entre la curva y los segmentos que la aproximan. */
+    private static final double HIT_FLATNESS = 0.8;
+
+    /** Coseno y seno del ángulo de 40 grados entre la dirección del enlace y
+     * cada punto de control de un enlace que sale y llega a la misma figura. */
+    private static final double LOOP_COS = Math.cos(Math.toRadians(40));
+    private static final double LOOP_SIN = Math.sin(Math.toRadians(40));
+
+    /** Coseno y seno del ángulo de 80 grados entre los dos puntos de control. */
+    private static final double LOOP_COS2 = Math.cos(Math.toRadians(80));
+    private static final double LOOP_SIN2 = Math.sin(Math.toRadians(80));
     
     /** Determinar la curva 2D cuadrada a implementar para el arco. */
     protected transient QuadCurve2D.Double quad;
@@ -41,6 +64,36 @@ public class BaZLinkArc extends BaZAbstractLink {
     /** Posición media del label*/
     BaZVector2D pMiddle;
 
+    /** Posición del texto, reutilizada en cada actualización del enlace. */
+    private transient BaZVector2D labelPosition;
+
+    /** Vectores temporales reutilizados para calcular la curva sin crear objetos. */
+    private transient BaZVector2D scratch1, scratch2, scratch3;
+
+    /** Distancia máxima entre un punto y la curva para considerar que el punto
+     * está sobre el enlace. No debe superar <code>FRAME_MARGIN</code>. */
+    protected double hitTolerance = DEFAULT_HIT_TOLERANCE;
+
+    /** Coordenadas X,Y intercaladas de los puntos de la curva aproximada por
+     * segmentos, utilizada para determinar si un punto está sobre el enlace. */
+    private transient double[] polyline = null;
+
+    /** Número de puntos de <code>polyline</code>. */
+    private transient int polylineSize = 0;
+
+    /** Límites de los puntos de <code>polyline</code>. */
+    private transient double polyMinX, polyMinY, polyMaxX, polyMaxY;
+
+    /** Coordenadas de la curva con las que fue calculada <code>polyline</code>. */
+    private transient double[] polylineCurve = new double[8];
+
+    /** Número de coordenadas de <code>polylineCurve</code>. */
+    private transient int polylineCurveCount = 0;
+
+    /** Coordenadas actuales de la curva, reutilizadas para compararlas con las
+     * de <code>polyline</code>. */
+    private transient double[] curveCoords = new double[8];
+
     /**
      * Constructor para un link de tipo arco.
      */
@@ -67,10 +120,9 @@ public class BaZLinkArc extends BaZAbstractLink {
         double oldx = -1;
         double oldy = -1;
 
-        final double flatness_ = 0.8;
-        final double inset = 4;
+        double tolerance = hitTolerance*hitTolerance;
 
-        FlatteningPathIterator i = new FlatteningPathIterator(iterator, flatness_);
+        FlatteningPathIterator i = new FlatteningPathIterator(iterator, HIT_FLATNESS);
 
         while (!i.isDone()) {
 
@@ -85,19 +137,7 @@ public class BaZLinkArc extends BaZAbstractLink {
                     double nx = coord[0];
                     double ny = coord[1];
 
-                    double rx1 = Math.min(oldx, nx);
-                    double ry1 = Math.min(oldy, ny);
-                    double rx2 = Math.max(oldx, nx);
-                    double ry2 = Math.max(oldy, ny);
-
-                    if (Math.abs(rx1 - rx2) < inset || Math.abs(ry1 - ry2) < inset) {
-                        rx1 -= inset;
-                        ry1 -= inset;
-                        rx2 += inset;
-                        ry2 += inset;
-                    }
-
-                    if (x >= rx1 && x <= rx2 && y >= ry1 && y <= ry2)
+                    if (Line2D.ptSegDistSq(oldx, oldy, nx, ny, x, y) <= tolerance)
                         return true;
 
                     oldx = nx;
@@ -109,6 +149,109 @@ public class BaZLinkArc extends BaZAbstractLink {
         return false;
     }
 
+    /**
+     * Copia en <code>curveCoords</code> las coordenadas de la curva actual.
+     *
+     * @return Número de coordenadas copiadas, o <code>0</code> si el enlace
+     *         aún no tiene curva.
+     */
+    private int readCurveCoords() {
+        double[] c = curveCoords;
+
+        if (hasLoop) {
+            if (cubic == null)
+                return 0;
+
+            c[0] = cubic.x1; c[1] = cubic.y1;
+            c[2] = cubic.ctrlx1; c[3] = cubic.ctrly1;
+            c[4] = cubic.ctrlx2; c[5] = cubic.ctrly2;
+            c[6] = cubic.x2; c[7] = cubic.y2;
+            return 8;
+        }
+
+        if (quad == null)
+            return 0;
+
+        c[0] = quad.x1; c[1] = quad.y1;
+        c[2] = quad.ctrlx; c[3] = quad.ctrly;
+        c[4] = quad.x2; c[5] = quad.y2;
+        return 6;
+    }
+
+    /**
+     * Aproxima la curva actual por segmentos y la guarda en <code>polyline</code>
+     * junto con sus límites, si la curva cambió desde la última aproximación.
+     *
+     * @param count
+     *        Número de coordenadas de la curva leidas en <code>curveCoords</code>.
+     */
+    private void updatePolyline(int count) {
+        boolean updated = polyline != null && polylineCurveCount == count;
+
+        for (int i = 0; updated && i < count; i++)
+            updated = polylineCurve[i] == curveCoords[i];
+
+        if (updated)
+            return;
+
+        System.arraycopy(curveCoords, 0, polylineCurve, 0, count);
+        polylineCurveCount = count;
+
+        Shape curve = hasLoop ? (Shape) cubic : (Shape) quad;
+        FlatteningPathIterator i = new FlatteningPathIterator(curve.getPathIterator(null), HIT_FLATNESS);
+        double coord[] = new double[6];
+
+        if (polyline == null)
+            polyline = new double[64];
+
+        polylineSize = 0;
+        polyMinX = polyMinY = Double.POSITIVE_INFINITY;
+        polyMaxX = polyMaxY = Double.NEGATIVE_INFINITY;
+
+        while (!i.isDone()) {
+            i.currentSegment(coord);
+
+            if (2*polylineSize + 2 > polyline.length) {
+                double[] grown = new double[polyline.length*2];
+                System.arraycopy(polyline, 0, grown, 0, 2*polylineSize);
+                polyline = grown;
+            }
+
+            polyline[2*polylineSize] = coord[0];
+            polyline[2*polylineSize + 1] = coord[1];
+            polylineSize++;
+
+            polyMinX = Math.min(polyMinX, coord[0]);
+            polyMinY = Math.min(polyMinY, coord[1]);
+            polyMaxX = Math.max(polyMaxX, coord[0]);
+            polyMaxY = Math.max(polyMaxY, coord[1]);
+
+            i.next();
+        }
+    }
+
+    /**
+     * Retorna la distancia máxima entre un punto y la curva para considerar
+     * que el punto está sobre el enlace.
+     *
+     * @return Tolerancia para determinar si un punto está sobre el enlace.
+     */
+    public double getHitTolerance() {
+        return hitTolerance;
+    }
+
+    /**
+     * Modifica la distancia máxima entre un punto y la curva para considerar
+     * que el punto está sobre el enlace. Los puntos por fuera del frame del
+     * enlace no son verificados, por lo que no debe superar <code>FRAME_MARGIN</code>.
+     *
+     * @param hitTolerance
+     *        Tolerancia para determinar si un punto está sobre el enlace.
+     */
+    public void setHitTolerance(double hitTolerance) {
+        this.hitTolerance = hitTolerance;
+    }
+
     /**
      * Modifica la dirección del punto final del link de acuerdo a la posición
      * del mouse.
@@ -156,76 +299,100 @@ public class BaZLinkArc extends BaZAbstractLink {
 
     @Override
     public boolean contains(double x, double y) {
-        if (hasLoop && cubic != null)
-            return this.contains(cubic.getPathIterator(null), x, y);
+        int count = this.readCurveCoords();
 
-        if (!hasLoop && quad != null)
-            return this.contains(quad.getPathIterator(null), x, y);
+        if (count == 0)
+            return false;
+
+        this.updatePolyline(count);
+
+        double t = hitTolerance;
+
+        if (x < polyMinX - t || x > polyMaxX + t || y < polyMinY - t || y > polyMaxY + t)
+            return false;
+
+        double tolerance = t*t;
+        double[] p = polyline;
+
+        for (int i = 2; i < 2*polylineSize; i += 2) {
+            if (Line2D.ptSegDistSq(p[i - 2], p[i - 1], p[i], p[i + 1], x, y) <= tolerance)
+                return true;
+        }
 
         return false;
     }
 
     @Override
     public void update() {
-        
+        if (scratch1 == null) {
+            scratch1 = new BaZVector2D();
+            scratch2 = new BaZVector2D();
+            scratch3 = new BaZVector2D();
+            labelPosition = new BaZVector2D();
+        }
+
+        BaZVector2D start = this.getStartWithOffset();
+        BaZVector2D end = this.getEndWithOffset();
+
         //Computa el punto de control de la curva.
         if (hasLoop) {
             if (cubic == null)
                 cubic = new CubicCurve2D.Double();
 
-            BaZVector2D corde = this.getDirection().copy();
+            BaZVector2D corde = scratch1.set(this.getDirection());
             corde.stretch(1.7);
 
             if (corde.lenght() < 100)
                 corde.setLength(100);
 
-            corde.rotate(-40);
-            cubic.ctrlx1 = this.getStartWithOffset().getX() + corde.getX();
-            cubic.ctrly1 = this.getStartWithOffset().getY() + corde.getY();
+            corde.rotate(LOOP_COS, -LOOP_SIN);
+            cubic.ctrlx1 = start.getX() + corde.getX();
+            cubic.ctrly1 = start.getY() + corde.getY();
 
-            corde.rotate(+80);
-            cubic.ctrlx2 = this.getStartWithOffset().getX() + corde.getX();
-            cubic.ctrly2 = this.getStartWithOffset().getY() + corde.getY();
+            corde.rotate(LOOP_COS2, LOOP_SIN2);
+            cubic.ctrlx2 = start.getX() + corde.getX();
+            cubic.ctrly2 = start.getY() + corde.getY();
 
             //Mover los puntos iniciales y finales de acuerdo al offset
 
-            BaZVector2D v1 = new BaZVector2D(cubic.ctrlx1, cubic.ctrly1).operation(this.getStartWithOffset(), BaZVector2D.SUB).normalize();
-            BaZVector2D v2 = new BaZVector2D(cubic.ctrlx2, cubic.ctrly2).operation(this.getStartWithOffset(), BaZVector2D.SUB).normalize();
+            BaZVector2D v1 = scratch1.set(cubic.ctrlx1 - start.getX(), cubic.ctrly1 - start.getY()).normalizeSelf();
+            BaZVector2D v2 = scratch2.set(cubic.ctrlx2 - start.getX(), cubic.ctrly2 - start.getY()).normalizeSelf();
 
             v1.stretch(startTangentOffset);
             v2.stretch(endTangentOffset);
 
-            cubic.x1 = this.getStartWithOffset().getX() + v1.getX();
-            cubic.y1 = this.getStartWithOffset().getY() + v1.getY();
-            cubic.x2 = this.getEndWithOffset().getX() + v2.getX();
-            cubic.y2 = this.getEndWithOffset().getY() + v2.getY();
+            cubic.x1 = start.getX() + v1.getX();
+            cubic.y1 = start.getY() + v1.getY();
+            cubic.x2 = end.getX() + v2.getX();
+            cubic.y2 = end.getY() + v2.getY();
 
             //Posición del texto del link.
 
-            BaZVector2D vLabel_ = this.getDirection().copy();
+            BaZVector2D vLabel_ = scratch3.set(this.getDirection());
             vLabel_.setLength(vLabel_.lenght() + 15);
 
             if (vLabel_.lenght() < 75)
                 vLabel_.setLength(75);
 
-            BaZVector2D pLabel = this.getStartWithOffset().operation(vLabel_, BaZVector2D.ADD);
-            text.setPosition(pLabel);
+            text.setPosition(start.addInto(vLabel_, labelPosition));
 
             //Crear la fecha al inicio del link
             startArrow.setAnchor(cubic.x1, cubic.y1);
-            startArrow.setDirection(new BaZVector2D(cubic.ctrlx1 - cubic.x1, cubic.ctrly1 - cubic.y1));
+            startArrow.setDirection(cubic.ctrlx1 - cubic.x1, cubic.ctrly1 - cubic.y1);
+            startArrow.update();
 
             //Crear la fecha al final del link
             endArrow.setAnchor(cubic.x2, cubic.y2);
-            endArrow.setDirection(new BaZVector2D(cubic.ctrlx2 - cubic.x2, cubic.ctrly2 - cubic.y2));
+            endArrow.setDirection(cubic.ctrlx2 - cubic.x2, cubic.ctrly2 - cubic.y2);
+            endArrow.update();
 
             shape = cubic;
 
         } else {
-            BaZVector2D middle = this.getEndWithOffset().operation(this.getStartWithOffset(), BaZVector2D.SUB);
+            BaZVector2D middle = end.subInto(start, scratch1);
             middle.stretch(0.5);
 
-            BaZVector2D height = middle.normalize();
+            BaZVector2D height = scratch2.set(middle).normalizeSelf();
             height.rotate(-90);
 
             if (flatness == 0)
@@ -233,51 +400,81 @@ public class BaZLinkArc extends BaZAbstractLink {
             else
                 height.setLength(flatness);
 
-            BaZVector2D ctrl = middle.operation(height, BaZVector2D.ADD);
-
             if (quad == null)
                 quad = new QuadCurve2D.Double();
 
-            quad.x1 = this.getStartWithOffset().getX();
-            quad.y1 = this.getStartWithOffset().getY();
-            quad.x2 = this.getEndWithOffset().getX();
-            quad.y2 = this.getEndWithOffset().getY();
-            quad.ctrlx = this.getStartWithOffset().getX() + ctrl.getX();
-            quad.ctrly = this.getStartWithOffset().getY() + ctrl.getY();
+            quad.ctrlx = start.getX() + (middle.getX() + height.getX());
+            quad.ctrly = start.getY() + (middle.getY() + height.getY());
 
-            BaZVector2D controlPoint = new BaZVector2D(quad.ctrlx, quad.ctrly);
+            BaZVector2D controlPoint = scratch3.set(quad.ctrlx, quad.ctrly);
 
             // Mover el punton inicial/final de acuerdo al offset
 
-            BaZVector2D v1 = controlPoint.operation(this.getStartWithOffset(), BaZVector2D.SUB).normalize();
-            BaZVector2D v2 = controlPoint.operation(this.getEndWithOffset(), BaZVector2D.SUB).normalize();
+            BaZVector2D v1 = controlPoint.subInto(start, scratch1).normalizeSelf();
+            BaZVector2D v2 = controlPoint.subInto(end, scratch2).normalizeSelf();
 
             v1.stretch(startTangentOffset);
             v2.stretch(endTangentOffset);
 
-            quad.x1 = this.getStartWithOffset().getX() + v1.getX();
-            quad.y1 = this.getStartWithOffset().getY() + v1.getY();
-            quad.x2 = this.getEndWithOffset().getX() + v2.getX();
-            quad.y2 = this.getEndWithOffset().getY() + v2.getY();
+            quad.x1 = start.getX() + v1.getX();
+            quad.y1 = start.getY() + v1.getY();
+            quad.x2 = end.getX() + v2.getX();
+            quad.y2 = end.getY() + v2.getY();
 
             //Posicionamos el texto
 
-            pMiddle = new BaZVector2D(quad.x1 + (quad.x2 - quad.x1)*0.5, quad.y1 + (quad.y2 - quad.y1)*0.5);
-            vLabel = new BaZVector2D(quad.x2 - quad.x1, quad.y2 - quad.y1).rotate(90*(flatness<0?1:-1));
+            if (pMiddle == null) {
+                pMiddle = new BaZVector2D();
+                vLabel = new BaZVector2D();
+            }
+
+            pMiddle.set(quad.x1 + (quad.x2 - quad.x1)*0.5, quad.y1 + (quad.y2 - quad.y1)*0.5);
+            vLabel.set(quad.x2 - quad.x1, quad.y2 - quad.y1).rotate(90*(flatness<0?1:-1));
 
             vLabel.setLength(Math.abs(flatness)*0.5 + 20);
-            text.setPosition(pMiddle.operation(vLabel, BaZVector2D.ADD));
+            text.setPosition(pMiddle.addInto(vLabel, labelPosition));
 
             //Crear la fecha al inicio del link
             startArrow.setAnchor(quad.x1, quad.y1);
-            startArrow.setDirection(controlPoint.operation(this.getStartWithOffset(), BaZVector2D.SUB));
+            startArrow.setDirection(controlPoint.getX() - start.getX(), controlPoint.getY() - start.getY());
+            startArrow.update();
             
             // Crear la flecha en la punta final del link.
             endArrow.setAnchor(quad.x2, quad.y2);
-            endArrow.setDirection(controlPoint.operation(this.getEndWithOffset(), BaZVector2D.SUB));
+            endArrow.setDirection(controlPoint.getX() - end.getX(), controlPoint.getY() - end.getY());
+            endArrow.update();
 
             shape = quad;
         }
+
+        this.updateFrame();
+    }
+
+    /**
+     * Calcula el frame del enlace a partir de los límites de la curva y de la
+     * posición del texto.
+     */
+    protected void updateFrame() {
+        Rectangle2D r = shape.getBounds2D();
+
+        double x1 = r.getMinX();
+        double y1 = r.getMinY();
+        double x2 = r.getMaxX();
+        double y2 = r.getMaxY();
+
+        // El frame incluye el texto completo del label, no solo su posición,
+        // pues el texto puede sobresalir de la curva.
+        BaZRect label = text.getFrame();
+
+        if (label != null) {
+            x1 = Math.min(x1, label.getX());
+            y1 = Math.min(y1, label.getY());
+            x2 = Math.max(x2, label.getX() + label.getWidth());
+            y2 = Math.max(y2, label.getY() + label.getHeight());
+        }
+
+        frame = new BaZRect(x1 - FRAME_MARGIN, y1 - FRAME_MARGIN,
+                x2 - x1 + 2*FRAME_MARGIN, y2 - y1 + 2*FRAME_MARGIN);
     }
 
     @Override
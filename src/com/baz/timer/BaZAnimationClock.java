@@ -0,0 +1,154 @@
+/*
+ * BaZAnimationClock.java	0.1  17/10/2026
+ *
+ * Copyright 2011 Universidad de Antioquia. All rights reserved.
+ */
+package com.baz.timer;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.Timer;
+
+/**
+ * Reloj de animación compartido por todos los lienzos. Un único
+ * <code>javax.swing.Timer</code> genera los pulsos en el hilo de eventos y
+ * activa en cada pulso los objetos <code>BaZTimer</code> registrados, en lugar
+ * de que cada <code>BaZTimer</code> tenga su propio <code>javax.swing.Timer</code>.
+ * El reloj se detiene cuando no hay ningún <code>BaZTimer</code> registrado.
+ *
+ * Ésta clase es sincronizada, por lo que los <code>BaZTimer</code> pueden
+ * registrarse desde cualquier hilo.
+ *
+ * @author JpBaena
+ * @version 0.1
+ * @since 1.6
+ */
+public class BaZAnimationClock {
+
+    /** Retardo por defecto entre pulsos del reloj, en milisegundos. */
+    public static final int DEFAULT_DELAY = 50;
+
+    /** Reloj compartido por todos los lienzos. */
+    private static final BaZAnimationClock SHARED_CLOCK = new BaZAnimationClock(DEFAULT_DELAY);
+
+    /** Timers registrados. Solo es modificada sosteniendo el cerrojo. */
+    private final List<BaZTimer> timers = new ArrayList<BaZTimer>();
+
+    /** Copia de los timers registrados, recorrida en cada pulso sin sostener el cerrojo. */
+    private volatile BaZTimer[] timersSnapshot = new BaZTimer[0];
+
+    /** Objeto <code>Timer</code> que genera los pulsos del reloj. */
+    private final Timer timer;
+
+    /**
+     * Construye un reloj detenido con el retardo especificado entre pulsos.
+     *
+     * @param delay
+     *        Retardo entre pulsos, en milisegundos.
+     */
+    public BaZAnimationClock(int delay) {
+        timer = new Timer(delay, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                tick();
+            }
+        });
+    }
+
+    /**
+     * Retorna el reloj compartido por todos los lienzos.
+     *
+     * @return Reloj de animación compartido.
+     */
+    public static BaZAnimationClock getSharedClock() {
+        return SHARED_CLOCK;
+    }
+
+    /**
+     * Registra el timer especificado para que sea activado por el reloj,
+     * iniciando el reloj si estaba detenido.
+     *
+     * @param bazTimer
+     *        Timer a registrar.
+     */
+    public synchronized void register(BaZTimer bazTimer) {
+        if (timers.contains(bazTimer))
+            return;
+
+        timers.add(bazTimer);
+        timersSnapshot = timers.toArray(new BaZTimer[timers.size()]);
+
+        if (!timer.isRunning())
+            timer.start();
+    }
+
+    /**
+     * Elimina el registro del timer especificado, deteniendo el reloj si no
+     * queda ningún timer registrado.
+     *
+     * @param bazTimer
+     *        Timer a eliminar.
+     */
+    public synchronized void unregister(BaZTimer bazTimer) {
+        if (!timers.remove(bazTimer))
+            return;
+
+        timersSnapshot = timers.toArray(new BaZTimer[timers.size()]);
+
+        if (timers.isEmpty())
+            timer.stop();
+    }
+
+    /**
+     * Determina si el timer especificado está registrado en el reloj.
+     *
+     * @param bazTimer
+     *        Timer a buscar.
+     *
+     * @return <code>true</code> si el timer está registrado.
+     */
+    public synchronized boolean isRegistered(BaZTimer bazTimer) {
+        return timers.contains(bazTimer);
+    }
+
+    /**
+     * Determina si el reloj está generando pulsos.
+     *
+     * @return <code>true</code> si el reloj está corriendo.
+     */
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    /**
+     * Retorna el retardo entre pulsos del reloj.
+     *
+     * @return Retardo entre pulsos, en milisegundos.
+     */
+    public int getDelay() {
+        return timer.getDelay();
+    }
+
+    /**
+     * Modifica el retardo entre pulsos del reloj.
+     *
+     * @param delay
+     *        Retardo entre pulsos, en milisegundos.
+     */
+    public void setDelay(int delay) {
+        timer.setDelay(delay);
+    }
+
+    /**
+     * Activa los timers registrados cuyo retardo se ha cumplido. Es llamado en
+     * el hilo de eventos en cada pulso del reloj.
+     */
+    private void tick() {
+        BaZTimer[] snapshot = timersSnapshot;
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < snapshot.length; i++)
+            snapshot[i].tick(now, timer.getDelay());
+    }
+}
@@ -6,13 +6,18 @@
 package com.baz.timer;
 
 import com.baz.shape.BaZAbstractShape;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import javax.swing.Timer;
+import java.util.Set;
 
 /**
+ * Timer de las figuras animadas de un lienzo. Los pulsos son generados por el
+ * reloj de animación compartido <code>BaZAnimationClock</code>, el cual activa
+ * el timer cada vez que se cumple su retardo mientras tenga figuras asociadas.
  *
  * @author JpBaena
  * @version 0.1
@@ -20,11 +25,20 @@ import javax.swing.Timer;
  */
 public class BaZTimer {
 
-    /** Lista de figuras que estarán asociadoas al timer*/
-    protected List shapes = new ArrayList();
+    /** Figuras asociadas al timer, en el orden en que fueron añadidas. Las
+     * figuras no redefinen <code>equals</code>, por lo que se identifican por
+     * referencia. */
+    protected Set<BaZAbstractShape> shapes = new LinkedHashSet<BaZAbstractShape>();
 
-    /** Objeto <code>Timer</code> propio de la clase. */
-    protected Timer timer = null;
+    /** Copia inmutable de las figuras asociadas, o <code>null</code> si las
+     * figuras cambiaron desde la última copia. */
+    private List<BaZAbstractShape> elements = null;
+
+    /** Reloj de animación que genera los pulsos del timer. */
+    protected BaZAnimationClock clock = BaZAnimationClock.getSharedClock();
+
+    /** Momento, en milisegundos, en que el timer fue activado por última vez. */
+    private long lastFired = 0;
 
     /** Lienzo sobre el que actuará el objeto <code>Timer</code>. */
     protected BaZTimerDelegate delegate = null;
@@ -83,30 +97,44 @@ public class BaZTimer {
     }
 
     /**
-     * Inicia el timer de acuerdo al retardo especificado a la instancia.
+     * Inicia el timer registrándolo en el reloj de animación.
      */
     public void start() {
-        if(timer == null) {
-            timer = new Timer(delay, new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    delegate.timerFired(BaZTimer.this);
-                }
-            });
-            timer.start();
-        } else if(!timer.isRunning()) {
-            timer.start();
-        }
+        clock.register(this);
     }
 
     /**
-     * Detiene el timer si este se encuentra corriendo.
+     * Detiene el timer eliminando su registro del reloj de animación.
      */
     public void stop() {
-        if(timer == null)
+        clock.unregister(this);
+    }
+
+    /**
+     * Determina si el timer se encuentra corriendo.
+     *
+     * @return <code>true</code> si el timer está registrado en el reloj.
+     */
+    public boolean isRunning() {
+        return clock.isRegistered(this);
+    }
+
+    /**
+     * Activa el timer si desde su última activación ha transcurrido su
+     * retardo, con una tolerancia de medio pulso del reloj. Es llamado por el
+     * reloj de animación en cada pulso.
+     *
+     * @param now
+     *        Momento actual, en milisegundos.
+     * @param clockDelay
+     *        Retardo entre pulsos del reloj.
+     */
+    void tick(long now, int clockDelay) {
+        if (now - lastFired + clockDelay / 2 < delay)
             return;
 
-        if(timer.isRunning())
-            timer.stop();
+        lastFired = now;
+        delegate.timerFired(this);
     }
 
     /**
@@ -116,10 +144,25 @@ public class BaZTimer {
      *        Figura a ser añadida.
      */
     public synchronized void add(BaZAbstractShape shape) {
-        if(shapes.contains(shape))
+        if(!shapes.add(shape))
+            return;
+
+        elements = null;
+        this.refresh();
+    }
+
+    /**
+     * Añade las figuras especificadas a la lista de figuras de la instancia,
+     * actualizando el estado del timer una sola vez.
+     *
+     * @param shapes
+     *        Figuras a ser añadidas.
+     */
+    public synchronized void addAll(Collection<? extends BaZAbstractShape> shapes) {
+        if(!this.shapes.addAll(shapes))
             return;
 
-        shapes.add(shape);
+        elements = null;
         this.refresh();
     }
 
@@ -130,7 +173,30 @@ public class BaZTimer {
      *        Figura a ser eliminada.
      */
     public synchronized void remove(BaZAbstractShape shape) {
-        shapes.remove(shape);
+        if(shapes.remove(shape))
+            elements = null;
+
+        this.refresh();
+    }
+
+    /**
+     * Remueve las figuras especificadas de la lista de figuras de la
+     * instancia, actualizando el estado del timer una sola vez.
+     *
+     * @param shapes
+     *        Figuras a ser eliminadas.
+     */
+    public synchronized void removeAll(Collection<? extends BaZAbstractShape> shapes) {
+        boolean removed = false;
+
+        // Se recorre la colección especificada, pues Set.removeAll recorre el
+        // conjunto cuando éste es más pequeño y consulta contains sobre ella.
+        for (Iterator<? extends BaZAbstractShape> iterator = shapes.iterator(); iterator.hasNext();)
+            removed |= this.shapes.remove(iterator.next());
+
+        if(removed)
+            elements = null;
+
         this.refresh();
     }
 
@@ -139,6 +205,7 @@ public class BaZTimer {
      */
     public synchronized void clear() {
         shapes.clear();
+        elements = null;
         this.refresh();
     }
 
@@ -157,11 +224,25 @@ public class BaZTimer {
     }
 
     /**
-     * Retorna toda la lista de figuras asociadas a la instancia de clase.
+     * Retorna toda la lista de figuras asociadas a la instancia de clase, en
+     * el orden en que fueron añadidas. La lista es una copia inmutable que se
+     * reutiliza mientras las figuras asociadas no cambien.
      *
      * @return Lista de figuras.
      */
-    public List getElements() {
-        return shapes;
+    public synchronized List<BaZAbstractShape> getElements() {
+        if(elements == null)
+            elements = Collections.unmodifiableList(new ArrayList<BaZAbstractShape>(shapes));
+
+        return elements;
+    }
+
+    /**
+     * Retorna el número de figuras asociadas al timer.
+     *
+     * @return Número de figuras.
+     */
+    public synchronized int size() {
+        return shapes.size();
     }
 }
\ No newline at end of file